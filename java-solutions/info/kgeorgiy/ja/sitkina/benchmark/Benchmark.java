@@ -0,0 +1,54 @@
+package info.kgeorgiy.ja.sitkina.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Measures benchmark cases: every case is warmed up first, then the median of the measured iterations is reported.
+ */
+public class Benchmark {
+    private final int warmup;
+    private final int iterations;
+
+    public Benchmark(int warmup, int iterations) {
+        if (warmup < 0 || iterations <= 0) {
+            throw new IllegalArgumentException("Expected non-negative warmup and positive iterations");
+        }
+        this.warmup = warmup;
+        this.iterations = iterations;
+    }
+
+    public void measure(String name, Task task) {
+        measure(name, 0, null, task);
+    }
+
+    /**
+     * Also reports the throughput of {@code amount} {@code units} processed by every run.
+     */
+    public void measure(String name, double amount, String units, Task task) {
+        try {
+            for (int i = 0; i < warmup; i++) {
+                task.run();
+            }
+            long[] times = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                task.run();
+                times[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            double seconds = times[iterations / 2] / 1e9;
+            System.out.printf("%-45s %14.3f us", name, seconds * 1e6);
+            if (amount > 0) {
+                System.out.printf(" %14.1f %s/s", amount / seconds, units);
+            }
+            System.out.println();
+        } catch (Exception e) {
+            System.out.printf("%-45s failed: %s%n", name, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,53 @@
+package info.kgeorgiy.ja.sitkina.iterative;
+
+import info.kgeorgiy.ja.sitkina.benchmark.Benchmark;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Break-even benchmark for the adaptive partitioning of {@link IterativeParallelism}.
+ * Usage: {@code IterativeBenchmark [threads]}.
+ * Compares the calling thread alone, a fixed split into one chunk per thread without sampling,
+ * and the default adaptive split, first for a cheap operation over growing lists,
+ * then for elements whose cost grows with their index.
+ */
+public class IterativeBenchmark {
+    private static final Benchmark BENCHMARK = new Benchmark(5, 11);
+    private static final int[] SIZES = {16, 256, 4_096, 65_536, 1_048_576};
+    private static final int SKEWED_SIZE = 4_096;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        IterativeParallelism fixed = new IterativeParallelism(null, 0, 1);
+        IterativeParallelism adaptive = new IterativeParallelism();
+        for (int size : SIZES) {
+            List<Integer> values = IntStream.range(0, size).boxed().toList();
+            BENCHMARK.measure("maximum n=" + size + " sequential",
+                    () -> adaptive.maximum(1, values, Comparator.naturalOrder()));
+            BENCHMARK.measure("maximum n=" + size + " fixed",
+                    () -> fixed.maximum(threads, values, Comparator.naturalOrder()));
+            BENCHMARK.measure("maximum n=" + size + " adaptive",
+                    () -> adaptive.maximum(threads, values, Comparator.naturalOrder()));
+        }
+        List<Integer> skewed = IntStream.range(0, SKEWED_SIZE).boxed().toList();
+        IterativeParallelism oversplit = new IterativeParallelism(null, 0, 16);
+        BENCHMARK.measure("skewed n=" + SKEWED_SIZE + " sequential", () -> adaptive.mapReduceLong(1, skewed,
+                IterativeBenchmark::spin, 0, Long::sum));
+        BENCHMARK.measure("skewed n=" + SKEWED_SIZE + " fixed", () -> fixed.mapReduceLong(threads, skewed,
+                IterativeBenchmark::spin, 0, Long::sum));
+        BENCHMARK.measure("skewed n=" + SKEWED_SIZE + " oversplit x16", () -> oversplit.mapReduceLong(threads, skewed,
+                IterativeBenchmark::spin, 0, Long::sum));
+        BENCHMARK.measure("skewed n=" + SKEWED_SIZE + " adaptive", () -> adaptive.mapReduceLong(threads, skewed,
+                IterativeBenchmark::spin, 0, Long::sum));
+    }
+
+    private static long spin(int x) {
+        long h = x;
+        for (int i = 0; i < x; i++) {
+            h = h * 31 + i;
+        }
+        return h;
+    }
+}
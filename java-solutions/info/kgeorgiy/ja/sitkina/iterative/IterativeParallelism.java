@@ -4,24 +4,73 @@ import info.kgeorgiy.java.advanced.iterative.AdvancedIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+/**
+ * Before going parallel, operations run growing blocks at evenly spread positions of the input on the calling
+ * thread to estimate the cost per element, so an expensive tail is noticed as early as an expensive head.
+ * If the rest is estimated to take less than the sequential threshold, it is computed on the calling thread too.
+ * Otherwise it is split into {@code chunksPerThread} times more chunks than threads,
+ * which idle threads pick up dynamically, so skewed costs even out.
+ */
 public class IterativeParallelism implements AdvancedIP {
+    public static final long DEFAULT_SEQUENTIAL_THRESHOLD_NANOS = 50_000;
+    public static final int DEFAULT_CHUNKS_PER_THREAD = 4;
+    private static final int SAMPLE_SHARE = 10;
+    private static final int SAMPLE_SEGMENTS = 8;
+    private static final int MIN_BUCKET = 1 << 10;
+    private static final int OVERSAMPLING = 16;
+
     private final ParallelMapper mapper;
+    private final long sequentialThresholdNanos;
+    private final int chunksPerThread;
 
     public IterativeParallelism() {
-        this.mapper = null;
+        this(null);
     }
 
     public IterativeParallelism(ParallelMapper mapper) {
+        this(mapper, DEFAULT_SEQUENTIAL_THRESHOLD_NANOS, DEFAULT_CHUNKS_PER_THREAD);
+    }
+
+    /**
+     * @param mapper mapper to run chunks on, or {@code null} to use shared threads
+     * @param sequentialThresholdNanos estimated work below which operations stay on the calling thread,
+     *                                 {@code 0} to disable sampling
+     * @param chunksPerThread number of chunks per thread for parallel operations
+     */
+    public IterativeParallelism(ParallelMapper mapper, long sequentialThresholdNanos, int chunksPerThread) {
+        if (sequentialThresholdNanos < 0) {
+            throw new IllegalArgumentException("Expected non-negative threshold: " + sequentialThresholdNanos);
+        }
+        if (chunksPerThread <= 0) {
+            throw new IllegalArgumentException("Expected positive chunks per thread: " + chunksPerThread);
+        }
         this.mapper = mapper;
+        this.sequentialThresholdNanos = sequentialThresholdNanos;
+        this.chunksPerThread = chunksPerThread;
     }
 
     @Override
@@ -32,8 +81,7 @@ public class IterativeParallelism implements AdvancedIP {
             BinaryOperator<T> operator,
             int step
     ) throws InterruptedException {
-        return applyFunction(threads, values, lst -> lst.stream().reduce(identity, operator),
-                lst -> lst.stream().reduce(identity, operator), step);
+        return mapReduce(threads, values, Function.identity(), identity, operator, step);
     }
 
     @Override
@@ -45,7 +93,207 @@ public class IterativeParallelism implements AdvancedIP {
             BinaryOperator<R> operator,
             int step
     ) throws InterruptedException {
-        return reduce(threads, map(threads, values, lift, step), identity, operator, 1);
+        List<T> list = randomAccess(values);
+        List<R> results = applyChunks(threads, steppedSize(list.size(), step), (from, to) -> {
+            R result = identity;
+            for (int i = from; i < to; i++) {
+                result = operator.apply(result, lift.apply(list.get(i * step)));
+            }
+            return result;
+        });
+        R result = identity;
+        for (R value : results) {
+            result = operator.apply(result, value);
+        }
+        return result;
+    }
+
+    public <T> int mapReduceInt(int threads, List<? extends T> values, ToIntFunction<? super T> lift,
+                                int identity, IntBinaryOperator operator, int step) throws InterruptedException {
+        List<? extends T> list = randomAccess(values);
+        List<Integer> results = applyChunks(threads, steppedSize(list.size(), step), (from, to) -> {
+            int result = identity;
+            for (int i = from; i < to; i++) {
+                result = operator.applyAsInt(result, lift.applyAsInt(list.get(i * step)));
+            }
+            return result;
+        });
+        int result = identity;
+        for (int value : results) {
+            result = operator.applyAsInt(result, value);
+        }
+        return result;
+    }
+
+    public <T> long mapReduceLong(int threads, List<? extends T> values, ToLongFunction<? super T> lift,
+                                  long identity, LongBinaryOperator operator, int step) throws InterruptedException {
+        List<? extends T> list = randomAccess(values);
+        List<Long> results = applyChunks(threads, steppedSize(list.size(), step), (from, to) -> {
+            long result = identity;
+            for (int i = from; i < to; i++) {
+                result = operator.applyAsLong(result, lift.applyAsLong(list.get(i * step)));
+            }
+            return result;
+        });
+        long result = identity;
+        for (long value : results) {
+            result = operator.applyAsLong(result, value);
+        }
+        return result;
+    }
+
+    public <T> double mapReduceDouble(int threads, List<? extends T> values, ToDoubleFunction<? super T> lift,
+                                      double identity, DoubleBinaryOperator operator, int step) throws InterruptedException {
+        List<? extends T> list = randomAccess(values);
+        List<Double> results = applyChunks(threads, steppedSize(list.size(), step), (from, to) -> {
+            double result = identity;
+            for (int i = from; i < to; i++) {
+                result = operator.applyAsDouble(result, lift.applyAsDouble(list.get(i * step)));
+            }
+            return result;
+        });
+        double result = identity;
+        for (double value : results) {
+            result = operator.applyAsDouble(result, value);
+        }
+        return result;
+    }
+
+    /**
+     * Inclusive prefix scan: the {@code i}-th result combines {@code identity} and the first {@code i + 1} values
+     * with the associative {@code operator}. Chunk totals are reduced in parallel, scanned on the calling thread,
+     * and then every chunk is scanned in parallel starting from its offset.
+     */
+    public <T> List<T> scan(int threads, List<? extends T> values, T identity,
+                            BinaryOperator<T> operator, int step) throws InterruptedException {
+        List<? extends T> list = randomAccess(values);
+        Object[] result = new Object[steppedSize(list.size(), step)];
+        List<Part<T>> parts = applyChunks(threads, result.length, (from, to) -> {
+            T total = identity;
+            for (int i = from; i < to; i++) {
+                total = operator.apply(total, list.get(i * step));
+            }
+            return new Part<>(from, to, total);
+        });
+        List<T> offsets = new ArrayList<>(parts.size());
+        T offset = identity;
+        for (Part<T> part : parts) {
+            offsets.add(offset);
+            offset = operator.apply(offset, part.total());
+        }
+        applyChunks(threads, parts.size(), (from, to) -> {
+            for (int p = from; p < to; p++) {
+                T current = offsets.get(p);
+                for (int i = parts.get(p).from(); i < parts.get(p).to(); i++) {
+                    current = operator.apply(current, list.get(i * step));
+                    result[i] = current;
+                }
+            }
+            return null;
+        });
+        return asList(result);
+    }
+
+    /**
+     * Stable sample sort. Splitters are chosen from a regular sample, then every chunk counts and scatters
+     * its elements into buckets in parallel, and the buckets are sorted in parallel.
+     */
+    public <T> List<T> sort(int threads, List<? extends T> values, Comparator<? super T> comparator,
+                            int step) throws InterruptedException {
+        List<? extends T> list = randomAccess(values);
+        int size = steppedSize(list.size(), step);
+        int bucketCount = (int) Long.min((long) threads * chunksPerThread, size / MIN_BUCKET);
+        if (bucketCount <= 1) {
+            Object[] result = new Object[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = list.get(i * step);
+            }
+            sortRange(result, 0, size, comparator);
+            return asList(result);
+        }
+
+        Object[] sample = new Object[bucketCount * OVERSAMPLING];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = list.get((int) ((long) i * size / sample.length) * step);
+        }
+        sortRange(sample, 0, sample.length, comparator);
+        Object[] splitters = new Object[bucketCount - 1];
+        for (int i = 0; i < splitters.length; i++) {
+            splitters[i] = sample[(i + 1) * OVERSAMPLING];
+        }
+
+        List<Range> ranges = cutRange(bucketCount, 0, size);
+        int[] buckets = new int[size];
+        int[][] counts = new int[ranges.size()][bucketCount];
+        applyChunks(threads, ranges.size(), (from, to) -> {
+            for (int r = from; r < to; r++) {
+                for (int i = ranges.get(r).from(); i < ranges.get(r).to(); i++) {
+                    buckets[i] = bucket(splitters, list.get(i * step), comparator);
+                    counts[r][buckets[i]]++;
+                }
+            }
+            return null;
+        });
+
+        int[] bucketStarts = new int[bucketCount + 1];
+        int position = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStarts[b] = position;
+            for (int[] rangeCounts : counts) {
+                int count = rangeCounts[b];
+                rangeCounts[b] = position;
+                position += count;
+            }
+        }
+        bucketStarts[bucketCount] = size;
+
+        Object[] result = new Object[size];
+        applyChunks(threads, ranges.size(), (from, to) -> {
+            for (int r = from; r < to; r++) {
+                int[] positions = counts[r];
+                for (int i = ranges.get(r).from(); i < ranges.get(r).to(); i++) {
+                    result[positions[buckets[i]]++] = list.get(i * step);
+                }
+            }
+            return null;
+        });
+        applyChunks(threads, bucketCount, (from, to) -> {
+            for (int b = from; b < to; b++) {
+                sortRange(result, bucketStarts[b], bucketStarts[b + 1], comparator);
+            }
+            return null;
+        });
+        return asList(result);
+    }
+
+    /**
+     * Groups values by key. Every chunk builds its own groups, which are merged in chunk order,
+     * so keys are ordered by first occurrence and every group keeps the order of the input.
+     * The map and its groups are unmodifiable.
+     */
+    public <T, K> Map<K, List<T>> groupingBy(int threads, List<? extends T> values,
+                                             Function<? super T, ? extends K> classifier,
+                                             int step) throws InterruptedException {
+        List<? extends T> list = randomAccess(values);
+        List<Map<K, List<T>>> parts = applyChunks(threads, steppedSize(list.size(), step), (from, to) -> {
+            Map<K, List<T>> groups = new LinkedHashMap<>();
+            for (int i = from; i < to; i++) {
+                T value = list.get(i * step);
+                groups.computeIfAbsent(classifier.apply(value), key -> new ArrayList<>()).add(value);
+            }
+            return groups;
+        });
+        Map<K, List<T>> result = new LinkedHashMap<>();
+        for (Map<K, List<T>> part : parts) {
+            for (Map.Entry<K, List<T>> group : part.entrySet()) {
+                List<T> target = result.putIfAbsent(group.getKey(), group.getValue());
+                if (target != null) {
+                    target.addAll(group.getValue());
+                }
+            }
+        }
+        result.replaceAll((key, group) -> Collections.unmodifiableList(group));
+        return Collections.unmodifiableMap(result);
     }
 
     @Override
@@ -56,16 +304,42 @@ public class IterativeParallelism implements AdvancedIP {
 
     @Override
     public <T> List<T> filter(int threads, List<? extends T> values, Predicate<? super T> predicate, int step) throws InterruptedException {
-        return Collections.<T>unmodifiableList(this.<T, Stream<? extends T>>applyFunction(threads, Collections.<T>unmodifiableList(values),
-                lst -> lst.stream().filter(predicate).toList().stream(),
-                main_lst -> main_lst.stream().flatMap(Function.identity()), step).toList());
+        List<? extends T> list = randomAccess(values);
+        List<Filtered> parts = applyChunks(threads, steppedSize(list.size(), step), (from, to) -> {
+            Object[] passed = new Object[to - from];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                T value = list.get(i * step);
+                if (predicate.test(value)) {
+                    passed[count++] = value;
+                }
+            }
+            return new Filtered(passed, count);
+        });
+        int size = 0;
+        for (Filtered part : parts) {
+            size += part.count();
+        }
+        Object[] result = new Object[size];
+        int position = 0;
+        for (Filtered part : parts) {
+            System.arraycopy(part.values(), 0, result, position, part.count());
+            position += part.count();
+        }
+        return asList(result);
     }
 
     @Override
     public <T, U> List<U> map(int threads, List<? extends T> values, Function<? super T, ? extends U> f, int step) throws InterruptedException {
-        return Collections.<U>unmodifiableList(this.<T, Stream<? extends U>>applyFunction(threads, Collections.<T>unmodifiableList(values),
-                lst -> lst.stream().map(f).toList().stream(),
-                main_lst -> main_lst.stream().flatMap(Function.identity()), step).toList());
+        List<? extends T> list = randomAccess(values);
+        Object[] result = new Object[steppedSize(list.size(), step)];
+        applyChunks(threads, result.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                result[i] = f.apply(list.get(i * step));
+            }
+            return null;
+        });
+        return asList(result);
     }
 
     @Override
@@ -80,8 +354,19 @@ public class IterativeParallelism implements AdvancedIP {
 
     @Override
     public <T> boolean all(int threads, List<? extends T> values, Predicate<? super T> predicate, int step) throws InterruptedException {
-        return applyFunction(threads, values, lst -> lst.stream().allMatch(predicate),
-                lst -> lst.stream().allMatch(Boolean::valueOf), step);
+        AtomicBoolean decided = new AtomicBoolean();
+        return applyFunction(threads, values, lst -> {
+            for (T value : lst) {
+                if (decided.get()) {
+                    return false;
+                }
+                if (!predicate.test(value)) {
+                    decided.set(true);
+                    return false;
+                }
+            }
+            return true;
+        }, lst -> lst.stream().allMatch(Boolean::valueOf), step);
     }
 
     @Override
@@ -91,8 +376,37 @@ public class IterativeParallelism implements AdvancedIP {
 
     @Override
     public <T> int count(int threads, List<? extends T> values, Predicate<? super T> predicate, int step) throws InterruptedException {
-        return Math.toIntExact(applyFunction(threads, values, lst -> lst.stream().filter(predicate).count(),
-                lst -> lst.stream().reduce(0L, Long::sum), step));
+        return mapReduceInt(threads, values, value -> predicate.test(value) ? 1 : 0, 0, Integer::sum, step);
+    }
+
+    public <T> int mapReduceInt(int threads, List<? extends T> values, ToIntFunction<? super T> lift,
+                                int identity, IntBinaryOperator operator) throws InterruptedException {
+        return mapReduceInt(threads, values, lift, identity, operator, 1);
+    }
+
+    public <T> long mapReduceLong(int threads, List<? extends T> values, ToLongFunction<? super T> lift,
+                                  long identity, LongBinaryOperator operator) throws InterruptedException {
+        return mapReduceLong(threads, values, lift, identity, operator, 1);
+    }
+
+    public <T> double mapReduceDouble(int threads, List<? extends T> values, ToDoubleFunction<? super T> lift,
+                                      double identity, DoubleBinaryOperator operator) throws InterruptedException {
+        return mapReduceDouble(threads, values, lift, identity, operator, 1);
+    }
+
+    public <T> List<T> scan(int threads, List<? extends T> values, T identity,
+                            BinaryOperator<T> operator) throws InterruptedException {
+        return scan(threads, values, identity, operator, 1);
+    }
+
+    public <T> List<T> sort(int threads, List<? extends T> values,
+                            Comparator<? super T> comparator) throws InterruptedException {
+        return sort(threads, values, comparator, 1);
+    }
+
+    public <T, K> Map<K, List<T>> groupingBy(int threads, List<? extends T> values,
+                                             Function<? super T, ? extends K> classifier) throws InterruptedException {
+        return groupingBy(threads, values, classifier, 1);
     }
 
     @Override
@@ -137,45 +451,180 @@ public class IterativeParallelism implements AdvancedIP {
 
     private <T, S> S applyFunction(int threads, List<T> values, Function<List<T>, S> transformer,
                                    Function<List<S>, S> resultsReducer, int step) throws InterruptedException {
-        if (mapper == null) {
-            threads = Integer.min(threads, (values.size() + step - 1) / step);
-            List<S> threadsRes = new ArrayList<>(Collections.nCopies(threads, null));
-            List<Thread> threadList = new ArrayList<>();
-            List<List<T>> views = cutList(threads, values, step);
-            for (int i = 0; i < threads; i++) {
-                int num = i;
-                Thread thread = new Thread(() -> threadsRes.set(
-                        num, transformer.apply(getStepsElems(views.get(num), step))));
-                threadList.add(thread);
-                thread.start();
-            }
-            joinThreads(threadList);
-            return resultsReducer.apply(threadsRes);
-        }
-        return resultsReducer.apply(mapper.map((view) -> transformer.apply(getStepsElems(view, step)),
-                cutList(threads, values, step)));
-    }
-
-    private <T> List<List<T>> cutList(int threads, List<T> values, int step) {
-        List<List<T>> result = new ArrayList<>();
-        int size = (values.size() + step - 1) / step;
-        threads = Integer.max(Integer.min(threads, size), 1);
-        int sizeForThread = size / threads;
-        int incrementedBuckets = size % threads;
-        int start = 0;
-        for (int i = 0; i < threads; i++) {
-            int end = Integer.min(start + sizeForThread * step + (i < incrementedBuckets ? step : 0), values.size());
-            result.add(values.subList(start, end));
+        List<T> list = randomAccess(values);
+        return resultsReducer.apply(applyChunks(threads, steppedSize(list.size(), step), (from, to) ->
+                transformer.apply(new StepList<>(list, from * step, to - from, step))));
+    }
+
+    /**
+     * Applies {@code chunk} to consecutive ranges covering indices {@code [0, size)}
+     * and returns the results in order. Ranges are sampled and run as described in the class documentation.
+     */
+    private <S> List<S> applyChunks(int threads, int size, Chunk<S> chunk) throws InterruptedException {
+        List<S> results = new ArrayList<>();
+        if (size == 0) {
+            return results;
+        }
+        if (threads <= 1) {
+            results.add(chunk.apply(0, size));
+            return results;
+        }
+        if (sequentialThresholdNanos == 0) {
+            return applyParallel(threads, List.of(new Range(0, size)), chunk);
+        }
+        List<Range> segments = cutRange(Integer.min(SAMPLE_SEGMENTS, size), 0, size);
+        int[] next = segments.stream().mapToInt(Range::from).toArray();
+        List<List<S>> samples = new ArrayList<>();
+        segments.forEach(segment -> samples.add(new ArrayList<>()));
+        int sampled = 0;
+        long start = System.nanoTime();
+        long elapsed = 0;
+        sampling:
+        for (long sample = 1; sampled < size; sample *= 2) {
+            for (int s = 0; s < segments.size(); s++) {
+                if (elapsed * SAMPLE_SHARE >= sequentialThresholdNanos) {
+                    break sampling;
+                }
+                int from = next[s];
+                int to = (int) Long.min(segments.get(s).to(), from + sample);
+                if (from < to) {
+                    samples.get(s).add(chunk.apply(from, to));
+                    next[s] = to;
+                    sampled += to - from;
+                    elapsed = System.nanoTime() - start;
+                }
+            }
+        }
+        List<Range> rest = new ArrayList<>();
+        for (int s = 0; s < segments.size(); s++) {
+            rest.add(new Range(next[s], segments.get(s).to()));
+        }
+        if ((double) elapsed / sampled * (size - sampled) < sequentialThresholdNanos) {
+            for (int s = 0; s < segments.size(); s++) {
+                results.addAll(samples.get(s));
+                if (rest.get(s).from() < rest.get(s).to()) {
+                    results.add(chunk.apply(rest.get(s).from(), rest.get(s).to()));
+                }
+            }
+            return results;
+        }
+        List<S> parallel = applyParallel(threads, rest, chunk);
+        int index = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            results.addAll(samples.get(s));
+            int pieces = pieces(rest.get(s), threads, size - sampled);
+            results.addAll(parallel.subList(index, index + pieces));
+            index += pieces;
+        }
+        return results;
+    }
+
+    /**
+     * Runs the ranges split into pieces on all threads, returning results of the pieces in order.
+     */
+    private <S> List<S> applyParallel(int threads, List<Range> ranges, Chunk<S> chunk) throws InterruptedException {
+        int total = ranges.stream().mapToInt(range -> range.to() - range.from()).sum();
+        List<Range> pieces = new ArrayList<>();
+        for (Range range : ranges) {
+            if (range.from() < range.to()) {
+                pieces.addAll(cutRange(pieces(range, threads, total), range.from(), range.to()));
+            }
+        }
+        if (mapper != null) {
+            return mapper.map(range -> chunk.apply(range.from(), range.to()), pieces);
+        }
+        Object[] results = new Object[pieces.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            try {
+                for (int i = next.getAndIncrement(); i < results.length; i = next.getAndIncrement()) {
+                    results[i] = chunk.apply(pieces.get(i).from(), pieces.get(i).to());
+                }
+            } catch (RuntimeException | Error e) {
+                next.set(results.length);
+                throw e;
+            }
+        };
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 1; i < Integer.min(threads, pieces.size()); i++) {
+            futures.add(SharedPool.EXECUTOR.submit(Executors.callable(worker)));
+        }
+        try {
+            worker.run();
+        } catch (RuntimeException | Error e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        joinFutures(futures);
+        return asList(results);
+    }
+
+    /**
+     * Number of pieces for a range holding its share of {@code total} elements, at least one for a non-empty range.
+     */
+    private int pieces(Range range, int threads, int total) {
+        int length = range.to() - range.from();
+        if (length == 0) {
+            return 0;
+        }
+        long parts = Long.min((long) threads * chunksPerThread, total);
+        return (int) Long.max(1, Long.min(length, parts * length / total));
+    }
+
+    private List<Range> cutRange(int parts, int from, int to) {
+        List<Range> result = new ArrayList<>();
+        int size = to - from;
+        int sizeForPart = size / parts;
+        int incrementedBuckets = size % parts;
+        int start = from;
+        for (int i = 0; i < parts; i++) {
+            int end = start + sizeForPart + (i < incrementedBuckets ? 1 : 0);
+            result.add(new Range(start, end));
             start = end;
         }
         return result;
     }
 
-    private void joinThreads(List<Thread> threads) throws InterruptedException {
+    @SuppressWarnings("unchecked")
+    private static <T> int bucket(Object[] splitters, T value, Comparator<? super T> comparator) {
+        int low = 0;
+        int high = splitters.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare((T) splitters[middle], value) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void sortRange(Object[] values, int from, int to, Comparator<? super T> comparator) {
+        Arrays.sort((T[]) values, from, to, comparator);
+    }
+
+    private static int steppedSize(int size, int step) {
+        return (size + step - 1) / step;
+    }
+
+    private static <T> List<T> randomAccess(List<T> values) {
+        return values instanceof RandomAccess ? values : new ArrayList<>(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(Object[] values) {
+        return Collections.unmodifiableList((List<T>) Arrays.asList(values));
+    }
+
+    private <S> List<S> joinFutures(List<Future<S>> futures) throws InterruptedException {
+        List<S> results = new ArrayList<>(futures.size() + 1);
         InterruptedException exceptions = null;
-        for (int i = 0; i < threads.size(); ) {
+        RuntimeException failure = null;
+        for (int i = 0; i < futures.size(); ) {
             try {
-                threads.get(i).join();
+                results.add(futures.get(i).get());
                 i++;
             } catch (InterruptedException e) {
                 if (exceptions == null) {
@@ -183,21 +632,54 @@ public class IterativeParallelism implements AdvancedIP {
                 } else {
                     exceptions.addSuppressed(e);
                 }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtime
+                        ? runtime
+                        : new RuntimeException(e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+                results.add(null);
+                i++;
             }
         }
         if (exceptions != null) {
             throw exceptions;
         }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
     }
 
-    private <T> List<T> getStepsElems(List<? extends T> values, int step) {
-        if (step == 1) {
-            return Collections.<T>unmodifiableList(values);
-        }
-        List<T> newValues = new ArrayList<>();
-        for (int i = 0; i < values.size(); i += step) {
-            newValues.add(values.get(i));
-        }
-        return newValues;
+    /**
+     * Computes the result for indices {@code [from, to)} of the stepped sequence.
+     */
+    @FunctionalInterface
+    private interface Chunk<S> {
+        S apply(int from, int to);
+    }
+
+    /**
+     * Daemon threads shared by all instances without a mapper, created on first use.
+     * Idle threads are reused and stop after a minute, so every chunk still gets its own thread.
+     */
+    private static final class SharedPool {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                Thread.ofPlatform().name("iterative-parallelism-", 0).daemon().factory());
+    }
+
+    private record Range(int from, int to) {
+    }
+
+    private record Filtered(Object[] values, int count) {
+    }
+
+    private record Part<T>(int from, int to, T total) {
     }
 }
@@ -0,0 +1,92 @@
+package info.kgeorgiy.ja.sitkina.iterative;
+
+import info.kgeorgiy.ja.sitkina.benchmark.Benchmark;
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Scaling benchmark for {@link ParallelMapperImpl}.
+ * Usage: {@code MapperBenchmark [max threads]}.
+ * Runs large maps of cheap elements (guided and per-element claims) and of heavier elements,
+ * many small maps submitted by concurrent callers and maps of blocking elements,
+ * for thread counts doubling up to the maximum; blocking maps are also run on {@link VirtualThreadParallelMapper}.
+ */
+public class MapperBenchmark {
+    private static final Benchmark BENCHMARK = new Benchmark(3, 5);
+    private static final int LARGE_SIZE = 1_000_000;
+    private static final int SMALL_SIZE = 64;
+    private static final int SMALL_CALLS = 2_000;
+    private static final int CALLERS = 4;
+    private static final int BLOCKING_SIZE = 1_000;
+    private static final int BLOCKING_LIMIT = 256;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        List<Integer> large = IntStream.range(0, LARGE_SIZE).boxed().toList();
+        List<Integer> small = IntStream.range(0, SMALL_SIZE).boxed().toList();
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            try (ParallelMapperImpl mapper = new ParallelMapperImpl(threads)) {
+                BENCHMARK.measure("cheap map, threads=" + threads, LARGE_SIZE, "elements",
+                        () -> mapper.map(x -> x + 1, large));
+                BENCHMARK.measure("cheap map grain=1, threads=" + threads, LARGE_SIZE, "elements",
+                        () -> mapper.map(x -> x + 1, large, 1));
+                BENCHMARK.measure("heavy map, threads=" + threads, LARGE_SIZE / 10, "elements",
+                        () -> mapper.map(MapperBenchmark::spin, large.subList(0, LARGE_SIZE / 10)));
+                BENCHMARK.measure("small maps x" + CALLERS + " callers, threads=" + threads,
+                        (long) SMALL_SIZE * SMALL_CALLS * CALLERS, "elements",
+                        () -> concurrently(mapper, x -> x + 1, small));
+                BENCHMARK.measure("blocking map, threads=" + threads, BLOCKING_SIZE, "elements",
+                        () -> mapper.map(MapperBenchmark::block, large.subList(0, BLOCKING_SIZE)));
+            }
+            if (threads >= maxThreads) {
+                break;
+            }
+        }
+        try (ParallelMapper mapper = new VirtualThreadParallelMapper(BLOCKING_LIMIT)) {
+            BENCHMARK.measure("blocking map, virtual threads limit=" + BLOCKING_LIMIT, BLOCKING_SIZE, "elements",
+                    () -> mapper.map(MapperBenchmark::block, large.subList(0, BLOCKING_SIZE)));
+        }
+    }
+
+    private static int block(int x) {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return x;
+    }
+
+    private static int spin(int x) {
+        int h = x;
+        for (int i = 0; i < 200; i++) {
+            h = h * 31 + i;
+        }
+        return h;
+    }
+
+    private static void concurrently(ParallelMapper mapper, Function<Integer, Integer> f,
+                                     List<Integer> values) throws InterruptedException {
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    for (int j = 0; j < SMALL_CALLS; j++) {
+                        mapper.map(f, values);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            callers.add(caller);
+            caller.start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+    }
+}
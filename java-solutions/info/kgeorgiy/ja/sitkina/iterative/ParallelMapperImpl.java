@@ -2,25 +2,63 @@ package info.kgeorgiy.ja.sitkina.iterative;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Deque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
+/**
+ * Every {@link #map} call is a single job in a lock-free queue; workers claim chunks of its elements
+ * by atomically advancing the job's index, so submitting and taking work never blocks.
+ * By default chunks are guided: each claim takes a share of the unclaimed elements proportional to
+ * the number of workers, so large lists are split into few big chunks first and small ones near the end.
+ * The lock is only used to park idle workers and is touched by {@code map} only when some worker is idle.
+ * A failing element cancels its job: unclaimed elements are dropped and {@code map} fails
+ * as soon as the chunks already running are done.
+ * <p>
+ * Jobs are queued per {@link Tenant}. Workers visit tenants round-robin and run up to
+ * the tenant's weight chunks on each visit, so a large job of one tenant delays
+ * jobs of the others by at most a few chunks. Calls to the mapper itself use the default tenant.
+ */
 public class ParallelMapperImpl implements ParallelMapper {
-    private final Deque<Runnable> queue;
+    public static final String DEFAULT_TENANT = "default";
+    private static final int MAX_GUIDED_CHUNK = 1 << 12;
+
+    private final Map<String, Tenant> tenantsByName = new ConcurrentHashMap<>();
+    private final List<Tenant> tenants = new CopyOnWriteArrayList<>();
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger idle = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Tenant defaultTenant;
     private final List<Thread> threadList;
 
     public ParallelMapperImpl(final int threads) {
-        this.queue = new ArrayDeque<>();
+        defaultTenant = forTenant(DEFAULT_TENANT, 1);
 
         final Runnable worker = () -> {
             try {
                 while (!Thread.currentThread().isInterrupted()) {
-                    pollRequest().run();
+                    if (!runChunks()) {
+                        awaitJob();
+                    }
                 }
             } catch (final InterruptedException ignored) {
             }
@@ -32,38 +70,103 @@ public class ParallelMapperImpl implements ParallelMapper {
                 .toList();
     }
 
-    private Runnable pollRequest() throws InterruptedException {
-        synchronized (queue) {
-            while (queue.isEmpty()) {
-                queue.wait();
+    /**
+     * Returns the view of this mapper for the given tenant, creating the tenant on first use.
+     * The weight is the number of chunks run per round-robin visit and is fixed at creation.
+     */
+    public final Tenant forTenant(final String name, final int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Expected positive weight: " + weight);
+        }
+        return tenantsByName.computeIfAbsent(name, n -> {
+            final Tenant tenant = new Tenant(n, weight);
+            tenants.add(tenant);
+            return tenant;
+        });
+    }
+
+    /**
+     * Statistics of all tenants in order of creation.
+     */
+    public Map<String, TenantStatistics> statistics() {
+        final Map<String, TenantStatistics> result = new LinkedHashMap<>();
+        for (final Tenant tenant : tenants) {
+            result.put(tenant.name, tenant.statistics());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private boolean runChunks() {
+        final List<Tenant> snapshot = tenants;
+        final int size = snapshot.size();
+        final int start = Math.floorMod(cursor.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            if (snapshot.get((start + i) % size).runChunks()) {
+                return true;
             }
-            queue.notify();
-            return queue.pollFirst();
         }
+        return false;
     }
 
-    @Override
-    public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args) throws InterruptedException {
-        final List<R> result = new ArrayList<>(Collections.nCopies(args.size(), null));
-        final Checker counter = new Checker();
-        for (int i = 0; i < args.size(); i++) {
-            final int index = i;
-            final Runnable runnable = () -> {
-                Exception exception = null;
-                try {
-                    result.set(index, f.apply(args.get(index)));
-                } catch (Exception e) {
-                    exception = e;
+    private void awaitJob() throws InterruptedException {
+        lock.lock();
+        try {
+            idle.incrementAndGet();
+            try {
+                while (queued.get() == 0) {
+                    available.await();
                 }
-                counter.increment(exception);
-            };
-            synchronized (queue) {
-                queue.addLast(runnable);
-                queue.notify();
+            } finally {
+                idle.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signal() {
+        if (idle.get() > 0) {
+            lock.lock();
+            try {
+                available.signalAll();
+            } finally {
+                lock.unlock();
             }
         }
-        counter.check(args.size());
-        return result;
+    }
+
+    @Override
+    public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args) throws InterruptedException {
+        return defaultTenant.map(f, args);
+    }
+
+    /**
+     * Maps elements in chunks of {@code grain} elements, or in guided chunks if {@code grain} is {@code 0}.
+     */
+    public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args,
+                              final int grain) throws InterruptedException {
+        return defaultTenant.map(f, args, grain, null);
+    }
+
+    /**
+     * Maps elements until some result matches {@code stop}. Elements that were not mapped
+     * because of that are {@code null} in the result.
+     */
+    public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args,
+                              final int grain, final Predicate<? super R> stop) throws InterruptedException {
+        return defaultTenant.map(f, args, grain, stop);
+    }
+
+    /**
+     * Same as {@link #map(Function, List, int, Predicate)}, but drops unclaimed elements and throws
+     * {@link TimeoutException} if the result is not ready in time. Chunks that are already running
+     * are not interrupted, their results are discarded.
+     * Being interrupted while waiting cancels the call the same way.
+     */
+    public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args,
+                              final int grain, final Predicate<? super R> stop,
+                              final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+        return defaultTenant.map(f, args, grain, stop, timeout, unit);
     }
 
     @Override
@@ -81,29 +184,235 @@ public class ParallelMapperImpl implements ParallelMapper {
         }
     }
 
-    private static class Checker {
-        private int count = 0;
-        private Exception exception = null;
+    /**
+     * Jobs of one caller of a shared mapper. Closing a tenant does not affect the mapper.
+     */
+    public final class Tenant implements ParallelMapper {
+        private final String name;
+        private final int weight;
+        private final Queue<Job<?, ?>> jobs = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder started = new LongAdder();
+        private final LongAdder waited = new LongAdder();
+        private final LongAccumulator maxWait = new LongAccumulator(Long::max, 0);
 
-        public synchronized void increment(Exception e) {
-            count++;
-            if (e != null) {
+        private Tenant(final String name, final int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        @Override
+        public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args) throws InterruptedException {
+            return map(f, args, 0, null);
+        }
+
+        /**
+         * See {@link ParallelMapperImpl#map(Function, List, int, Predicate)}.
+         */
+        public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args,
+                                  final int grain, final Predicate<? super R> stop) throws InterruptedException {
+            try {
+                return map(f, args, grain, stop, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (final TimeoutException e) {
+                throw new AssertionError("Unbounded map timed out", e);
+            }
+        }
+
+        /**
+         * See {@link ParallelMapperImpl#map(Function, List, int, Predicate, long, TimeUnit)}.
+         */
+        public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args,
+                                  final int grain, final Predicate<? super R> stop,
+                                  final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+            if (grain < 0) {
+                throw new IllegalArgumentException("Expected non-negative grain: " + grain);
+            }
+            if (args.isEmpty()) {
+                return Arrays.asList();
+            }
+            final Job<T, R> job = new Job<>(this, f, args, grain, threadList.size(), stop);
+            jobs.add(job);
+            depth.incrementAndGet();
+            queued.incrementAndGet();
+            signal();
+            return job.await(unit.toNanos(timeout));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public TenantStatistics statistics() {
+            final long count = started.sum();
+            return new TenantStatistics(name, weight, depth.get(), completed.sum(),
+                    count == 0 ? 0 : waited.sum() / count, maxWait.get());
+        }
+
+        /**
+         * Runs up to {@code weight} chunks, returns {@code false} if there were none.
+         */
+        private boolean runChunks() {
+            int run = 0;
+            while (run < weight) {
+                final Job<?, ?> job = jobs.peek();
+                if (job == null) {
+                    break;
+                }
+                if (job.runNext()) {
+                    run++;
+                } else if (jobs.remove(job)) {
+                    depth.decrementAndGet();
+                    queued.decrementAndGet();
+                    completed.increment();
+                }
+            }
+            return run > 0;
+        }
+
+        private void started(final long waitNanos) {
+            started.increment();
+            waited.add(waitNanos);
+            maxWait.accumulate(waitNanos);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class Job<T, R> {
+        private final Tenant tenant;
+        private final long submitted = System.nanoTime();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final Function<? super T, ? extends R> f;
+        private final List<? extends T> args;
+        private final Object[] results;
+        private final int grain;
+        private final int parts;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final Predicate<? super R> stop;
+        private volatile boolean cancelled = false;
+        private Throwable exception = null;
+
+        Job(final Tenant tenant, final Function<? super T, ? extends R> f, final List<? extends T> args,
+            final int grain, final int threads, final Predicate<? super R> stop) {
+            this.tenant = tenant;
+            this.f = f;
+            this.stop = stop;
+            this.args = args;
+            this.results = new Object[args.size()];
+            this.remaining = new AtomicInteger(args.size());
+            this.grain = grain;
+            this.parts = 2 * Math.max(threads, 1);
+        }
+
+        /**
+         * Runs the next unclaimed chunk, returns {@code false} if all elements are already claimed.
+         */
+        boolean runNext() {
+            final int start = claim();
+            if (start >= results.length) {
+                return false;
+            }
+            if (!started.get() && started.compareAndSet(false, true)) {
+                tenant.started(System.nanoTime() - submitted);
+            }
+            final int end = start + chunk(start);
+            try {
+                for (int index = start; index < end && !cancelled; index++) {
+                    try {
+                        final R result = f.apply(args.get(index));
+                        results[index] = result;
+                        if (stop != null && stop.test(result)) {
+                            cancel();
+                        }
+                    } catch (final Throwable e) {
+                        fail(e);
+                    }
+                }
+            } finally {
+                complete(end - start);
+            }
+            return true;
+        }
+
+        /**
+         * Drops all unclaimed elements and stops the running chunks after their current element.
+         */
+        void cancel() {
+            cancelled = true;
+            final int start = next.getAndSet(results.length);
+            if (start < results.length) {
+                complete(results.length - start);
+            }
+        }
+
+        private void complete(final int count) {
+            if (remaining.addAndGet(-count) == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        private int claim() {
+            while (true) {
+                final int start = next.get();
+                if (start >= results.length || next.compareAndSet(start, start + chunk(start))) {
+                    return start;
+                }
+            }
+        }
+
+        private int chunk(final int start) {
+            final int rest = results.length - start;
+            return grain > 0 ? Math.min(grain, rest) : Math.max(1, Math.min(MAX_GUIDED_CHUNK, rest / parts));
+        }
+
+        private void fail(final Throwable e) {
+            synchronized (this) {
                 if (exception == null) {
                     exception = e;
                 } else {
                     exception.addSuppressed(e);
                 }
             }
-            notify();
+            cancel();
         }
 
-        public synchronized void check(final int n) throws InterruptedException {
-            while (count < n) {
-                wait();
+        @SuppressWarnings("unchecked")
+        synchronized List<R> await(final long timeout) throws InterruptedException, TimeoutException {
+            final long deadline = System.nanoTime() + timeout;
+            try {
+                while (remaining.get() > 0) {
+                    if (timeout == Long.MAX_VALUE) {
+                        wait();
+                        continue;
+                    }
+                    final long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        cancel();
+                        throw new TimeoutException("Map was not completed in " + timeout + " ns");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+            } catch (final InterruptedException e) {
+                cancel();
+                throw e;
+            }
+            if (exception instanceof final Error error) {
+                throw error;
             }
             if (exception != null) {
                 throw new RuntimeException(exception);
             }
+            return (List<R>) Arrays.asList(results);
         }
     }
 }
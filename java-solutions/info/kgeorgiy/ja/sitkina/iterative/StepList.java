@@ -0,0 +1,35 @@
+package info.kgeorgiy.ja.sitkina.iterative;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable view of every {@code step}-th element of a random access list,
+ * starting from {@code from} and containing {@code size} elements.
+ */
+class StepList<T> extends AbstractList<T> implements RandomAccess {
+    private final List<? extends T> values;
+    private final int from;
+    private final int size;
+    private final int step;
+
+    StepList(List<? extends T> values, int from, int size, int step) {
+        this.values = values;
+        this.from = from;
+        this.size = size;
+        this.step = step;
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return values.get(from + index * step);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
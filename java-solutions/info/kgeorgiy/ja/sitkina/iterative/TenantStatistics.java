@@ -0,0 +1,9 @@
+package info.kgeorgiy.ja.sitkina.iterative;
+
+/**
+ * Snapshot of a {@link ParallelMapperImpl.Tenant}: jobs waiting in its queue, jobs fully dispatched,
+ * and average and maximal time from submission to the first running chunk.
+ */
+public record TenantStatistics(String name, int weight, int queuedJobs, long completedJobs,
+                               long averageWaitNanos, long maxWaitNanos) {
+}
@@ -0,0 +1,142 @@
+package info.kgeorgiy.ja.sitkina.iterative;
+
+import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Runs every chunk of a {@link #map} call on its own virtual thread, so functions blocking on I/O
+ * do not hold platform threads. The number of chunks running at once may be limited.
+ */
+public class VirtualThreadParallelMapper implements ParallelMapper {
+    private final Semaphore permits;
+    private final int grain;
+    private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed = false;
+
+    public VirtualThreadParallelMapper() {
+        this(0, 1);
+    }
+
+    public VirtualThreadParallelMapper(final int concurrency) {
+        this(concurrency, 1);
+    }
+
+    /**
+     * @param concurrency maximal number of chunks running at once, {@code 0} for no limit
+     * @param grain number of elements per chunk
+     */
+    public VirtualThreadParallelMapper(final int concurrency, final int grain) {
+        if (concurrency < 0) {
+            throw new IllegalArgumentException("Expected non-negative concurrency: " + concurrency);
+        }
+        if (grain <= 0) {
+            throw new IllegalArgumentException("Expected positive grain: " + grain);
+        }
+        this.permits = concurrency == 0 ? null : new Semaphore(concurrency);
+        this.grain = grain;
+    }
+
+    @Override
+    public <T, R> List<R> map(final Function<? super T, ? extends R> f, final List<? extends T> args) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Mapper is closed");
+        }
+        final Object[] results = new Object[args.size()];
+        final Throwable[] exceptions = new Throwable[(args.size() + grain - 1) / grain];
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final CountDownLatch done = new CountDownLatch(exceptions.length);
+        int chunk = 0;
+        try {
+            for (; chunk < exceptions.length; chunk++) {
+                if (closed) {
+                    throw new IllegalStateException("Mapper is closed");
+                }
+                if (permits != null) {
+                    permits.acquire();
+                }
+                final int index = chunk;
+                final Thread thread = Thread.ofVirtual().unstarted(() -> {
+                    try {
+                        runChunk(f, args, results, index * grain);
+                    } catch (final Exception | Error e) {
+                        exceptions[index] = e;
+                    } finally {
+                        threads.remove(Thread.currentThread());
+                        running.remove(Thread.currentThread());
+                        if (permits != null) {
+                            permits.release();
+                        }
+                        done.countDown();
+                    }
+                });
+                threads.add(thread);
+                running.add(thread);
+                thread.start();
+            }
+            done.await();
+        } catch (final InterruptedException | IllegalStateException e) {
+            for (; chunk < exceptions.length; chunk++) {
+                done.countDown();
+            }
+            stop(threads, done);
+            throw e;
+        }
+        Throwable exception = null;
+        for (final Throwable e : exceptions) {
+            if (e == null) {
+                continue;
+            }
+            if (exception == null) {
+                exception = e;
+            } else {
+                exception.addSuppressed(e);
+            }
+        }
+        if (exception instanceof final Error error) {
+            throw error;
+        }
+        if (exception != null) {
+            throw new RuntimeException(exception);
+        }
+        @SuppressWarnings("unchecked") final List<R> result = (List<R>) Arrays.asList(results);
+        return result;
+    }
+
+    private <T, R> void runChunk(final Function<? super T, ? extends R> f, final List<? extends T> args,
+                                 final Object[] results, final int start) {
+        final int end = Math.min(start + grain, results.length);
+        for (int i = start; i < end; i++) {
+            results[i] = f.apply(args.get(i));
+        }
+    }
+
+    /**
+     * Interrupts the running chunks and waits until they finish, so none outlives its {@code map} call.
+     */
+    private static void stop(final Set<Thread> threads, final CountDownLatch done) {
+        threads.forEach(Thread::interrupt);
+        while (true) {
+            try {
+                done.await();
+                return;
+            } catch (final InterruptedException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Interrupts running chunks; their {@code map} calls then fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        running.forEach(Thread::interrupt);
+    }
+}
@@ -0,0 +1,113 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Thread-safe base for calculators: every thread gets its own {@link Hasher} and read buffer,
+ * which are reused for all files hashed by that thread.
+ * Files of at least {@link #MAPPING_THRESHOLD} bytes are memory-mapped region by region,
+ * smaller ones are read through a direct buffer.
+ * Truncating a file while its mapping is hashed gives an {@link IOException} rather than an access fault.
+ */
+public abstract class AbstractHashCalculator implements HashCalculator {
+    private static final long MAPPING_THRESHOLD = 1L << 24;
+    private static final long MAPPING_REGION = 1L << 26;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private volatile WalkListener listener;
+    private final ThreadLocal<State> states = new ThreadLocal<>();
+
+    @Override
+    public String hash(String fileName) throws IOException {
+        State state = states.get();
+        if (state == null) {
+            state = new State(createHasher());
+            states.set(state);
+        }
+        Hasher hasher = state.hasher();
+        hasher.reset();
+        Path path;
+        try {
+            path = Path.of(fileName);
+        } catch (InvalidPathException e) {
+            throw new IOException("Invalid path " + fileName, e);
+        }
+        WalkListener listener = this.listener;
+        long start = now(listener);
+        long openNanos, readNanos = 0, hashNanos = 0, bytes = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long time = now(listener);
+            openNanos = time - start;
+            long size = channel.size();
+            if (size >= MAPPING_THRESHOLD) {
+                for (long position = 0; position < size; position += MAPPING_REGION) {
+                    long length = Long.min(MAPPING_REGION, size - position);
+                    ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    long mapped = now(listener);
+                    try {
+                        hasher.update(region);
+                    } catch (InternalError e) {
+                        throw new IOException("File " + fileName + " was truncated while hashing", e);
+                    }
+                    readNanos += mapped - time;
+                    time = now(listener);
+                    hashNanos += time - mapped;
+                    bytes += length;
+                }
+                channel.position(size);
+            }
+            ByteBuffer buffer = state.buffer();
+            buffer.clear();
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                long done = now(listener);
+                buffer.flip();
+                hasher.update(buffer);
+                buffer.clear();
+                readNanos += done - time;
+                time = now(listener);
+                hashNanos += time - done;
+                bytes += read;
+            }
+        }
+        if (listener == null) {
+            return digest(fileName, hasher);
+        }
+        long digestStart = System.nanoTime();
+        String hash = digest(fileName, hasher);
+        hashNanos += System.nanoTime() - digestStart;
+        listener.fileHashed(fileName, bytes, openNanos, readNanos, hashNanos);
+        return hash;
+    }
+
+    private static long now(WalkListener listener) {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Reports per-file timings to the given listener, or stops reporting if it is {@code null}.
+     */
+    public void setListener(WalkListener listener) {
+        this.listener = listener;
+    }
+
+    protected abstract Hasher createHasher();
+
+    /**
+     * Finishes hashing of a successfully read file.
+     */
+    protected String digest(String fileName, Hasher hasher) throws IOException {
+        return hasher.digest();
+    }
+
+    private record State(Hasher hasher, ByteBuffer buffer) {
+        State(Hasher hasher) {
+            this(hasher, ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+    }
+}
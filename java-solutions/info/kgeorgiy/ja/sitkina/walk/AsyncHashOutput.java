@@ -0,0 +1,213 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Text output written by a dedicated thread. Records wait in a bounded ring buffer; the writer thread
+ * takes everything queued at once, encodes it to UTF-8 and writes it to a {@link FileChannel} in large blocks.
+ * Write failures are reported by the next {@link #write}, {@link #flush} or {@link #close} call.
+ */
+public class AsyncHashOutput implements HashOutput {
+    private static final int CAPACITY = 1 << 14;
+    private static final int BUFFER_SIZE = 1 << 18;
+
+    private final FileChannel channel;
+    private final String[] hashes = new String[CAPACITY];
+    private final String[] fileNames = new String[CAPACITY];
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private final Thread thread;
+    private int head;
+    private int size;
+    private boolean writing;
+    private boolean closed;
+    private IOException failure;
+
+    public AsyncHashOutput(Path file) throws IOException {
+        this(file, false);
+    }
+
+    public AsyncHashOutput(Path file, boolean append) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        thread = new Thread(new Writer(), "hash-output");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void write(String hash, String fileName) throws WriteException {
+        lock.lock();
+        try {
+            while (size == CAPACITY && failure == null) {
+                notFull.await();
+            }
+            checkFailure();
+            int tail = (head + size) % CAPACITY;
+            hashes[tail] = hash;
+            fileNames[tail] = fileName;
+            size++;
+            notEmpty.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteException("Interrupted while writing to output file", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() throws WriteException {
+        lock.lock();
+        try {
+            while ((size > 0 || writing) && failure == null) {
+                drained.await();
+            }
+            checkFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteException("Interrupted while flushing output file", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws WriteException {
+        try {
+            flush();
+        } finally {
+            lock.lock();
+            try {
+                closed = true;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new WriteException("Cannot close output file", e);
+            }
+        }
+    }
+
+    private void checkFailure() throws WriteException {
+        if (failure != null) {
+            throw new WriteException("Cannot write to output file", failure);
+        }
+    }
+
+    private class Writer implements Runnable {
+        private final String[] batchHashes = new String[CAPACITY];
+        private final String[] batchFileNames = new String[CAPACITY];
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final LineBuffer line = new LineBuffer();
+
+        @Override
+        public void run() {
+            try {
+                int count;
+                while ((count = takeBatch()) > 0) {
+                    writeBatch(count);
+                    lock.lock();
+                    try {
+                        writing = false;
+                        if (size == 0) {
+                            drained.signalAll();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            } catch (IOException e) {
+                fail(e);
+            } catch (InterruptedException e) {
+                fail(new InterruptedIOException("Output thread interrupted"));
+            }
+        }
+
+        private int takeBatch() throws InterruptedException {
+            lock.lock();
+            try {
+                while (size == 0 && !closed) {
+                    notEmpty.await();
+                }
+                int count = size;
+                for (int i = 0; i < count; i++) {
+                    int index = (head + i) % CAPACITY;
+                    batchHashes[i] = hashes[index];
+                    batchFileNames[i] = fileNames[index];
+                    hashes[index] = null;
+                    fileNames[index] = null;
+                }
+                head = (head + count) % CAPACITY;
+                size = 0;
+                writing = count > 0;
+                notFull.signalAll();
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void writeBatch(int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                line.set(batchHashes[i], batchFileNames[i]);
+                batchHashes[i] = null;
+                batchFileNames[i] = null;
+                CharBuffer chars = CharBuffer.wrap(line.chars(), 0, line.length());
+                encoder.reset();
+                CoderResult result;
+                while ((result = encoder.encode(chars, buffer, true)).isOverflow()) {
+                    drain();
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                while (encoder.flush(buffer).isOverflow()) {
+                    drain();
+                }
+            }
+            drain();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void fail(IOException e) {
+            lock.lock();
+            try {
+                failure = e;
+                notFull.signalAll();
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skips hashing of regular files whose size and last-modified time match the {@link HashCache}.
+ */
+public class CachingHashCalculator implements HashCalculator {
+    private final HashCalculator calculator;
+    private final HashCache cache;
+
+    public CachingHashCalculator(HashCalculator calculator, HashCache cache) {
+        this.calculator = calculator;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getErrorHash() {
+        return calculator.getErrorHash();
+    }
+
+    @Override
+    public String hash(String fileName) throws IOException {
+        Path path;
+        BasicFileAttributes before;
+        try {
+            path = Path.of(fileName).toAbsolutePath().normalize();
+            before = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException | InvalidPathException | SecurityException e) {
+            return calculator.hash(fileName);
+        }
+        if (!before.isRegularFile()) {
+            return calculator.hash(fileName);
+        }
+        String key = path.toString();
+        long modified = before.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        String hash = cache.get(key, before.size(), modified);
+        if (hash != null) {
+            return hash;
+        }
+        hash = calculator.hash(fileName);
+        if (unchanged(path, before)) {
+            cache.put(key, before.size(), modified, hash);
+        }
+        return hash;
+    }
+
+    private static boolean unchanged(Path path, BasicFileAttributes before) {
+        try {
+            BasicFileAttributes after = Files.readAttributes(path, BasicFileAttributes.class);
+            return after.size() == before.size() && after.lastModifiedTime().equals(before.lastModifiedTime());
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+    }
+}
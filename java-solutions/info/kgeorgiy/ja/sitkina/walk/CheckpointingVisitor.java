@@ -0,0 +1,89 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts records of every root and periodically saves a {@link WalkCheckpoint} after flushing the output.
+ * When resuming, skips the records of the checkpoint's root that are already in the output;
+ * this relies on the traversal order of an unchanged directory being stable.
+ */
+class CheckpointingVisitor extends HashVisitor<Path> {
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(10);
+
+    private final HashWriter writer;
+    private final Path checkpointFile;
+    private final Path outputFile;
+    private final WalkCheckpoint resumed;
+    private long root = -1;
+    private long records;
+    private long lastSave = System.nanoTime();
+
+    CheckpointingVisitor(HashWriter writer, Path checkpointFile, Path outputFile, WalkCheckpoint resumed) {
+        super(writer);
+        this.writer = writer;
+        this.checkpointFile = checkpointFile;
+        this.outputFile = outputFile;
+        this.resumed = resumed;
+    }
+
+    /**
+     * Moves to the next input root and tells whether it should be walked.
+     */
+    boolean nextRoot() {
+        root++;
+        records = 0;
+        return root >= resumed.root();
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws WriteException {
+        if (!skip()) {
+            super.visitFile(file, attrs);
+            recorded();
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException exc) throws WriteException {
+        if (!skip()) {
+            super.visitFileFailed(file, exc);
+            recorded();
+        }
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     * Removes the checkpoint of a completed walk.
+     */
+    void finish() throws IOException {
+        Files.deleteIfExists(checkpointFile);
+    }
+
+    private boolean skip() {
+        if (root == resumed.root() && records < resumed.records()) {
+            records++;
+            return true;
+        }
+        return false;
+    }
+
+    private void recorded() throws WriteException {
+        records++;
+        long now = System.nanoTime();
+        if (now - lastSave >= PERIOD) {
+            lastSave = now;
+            writer.flush();
+            try {
+                new WalkCheckpoint(resumed.mode(), root, records, Files.size(outputFile)).save(checkpointFile);
+            } catch (IOException | SecurityException e) {
+                throw new WriteException("Cannot save checkpoint", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binary file with chunk lists of hashed files: a header, then records starting with a file id and a length.
+ * A non-negative length is a chunk followed by its digest; {@code -1} ends the file and is followed by
+ * the number of its chunks and its UTF-8 path. Chunk offsets are implied by lengths.
+ * <p>
+ * Files hashed in parallel interleave and appear in no particular order. Chunks of a file that failed
+ * to hash have no ending record.
+ */
+public class ChunkSidecar implements AutoCloseable {
+    private static final int MAGIC = 0x57434b31;
+    private static final int VERSION = 2;
+    private static final int END = -1;
+
+    private final DataOutputStream out;
+    private final AtomicLong files = new AtomicLong();
+
+    public ChunkSidecar(Path file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(ChunkingHashCalculator.CHUNK_DIGEST);
+        out.writeInt(ChunkingHashCalculator.MIN_CHUNK);
+        out.writeInt(ChunkingHashCalculator.MAX_CHUNK);
+    }
+
+    long nextFile() {
+        return files.getAndIncrement();
+    }
+
+    synchronized void writeChunk(long file, int length, byte[] digest) throws WriteException {
+        try {
+            out.writeLong(file);
+            out.writeInt(length);
+            out.write(digest);
+        } catch (IOException e) {
+            throw new WriteException("Cannot write chunk sidecar", e);
+        }
+    }
+
+    synchronized void writeEnd(long file, int chunkCount, String fileName) throws WriteException {
+        try {
+            byte[] path = fileName.getBytes(StandardCharsets.UTF_8);
+            out.writeLong(file);
+            out.writeInt(END);
+            out.writeInt(chunkCount);
+            out.writeInt(path.length);
+            out.write(path);
+        } catch (IOException e) {
+            throw new WriteException("Cannot write chunk sidecar", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,138 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.SplittableRandom;
+
+/**
+ * Computes the whole-file hash of the wrapped calculator and, in the same pass, splits the file into
+ * content-defined chunks with a gear rolling hash. Chunk digests go to the {@link ChunkSidecar} as soon as
+ * chunks close, so memory does not depend on the file size.
+ */
+public class ChunkingHashCalculator extends AbstractHashCalculator {
+    static final String CHUNK_DIGEST = "SHA-256";
+    static final int MIN_CHUNK = 1 << 14;
+    static final int MAX_CHUNK = 1 << 18;
+    private static final long BOUNDARY_MASK = 0xffffL << 48;
+    private static final long[] GEAR = new SplittableRandom(0x5eed_c4d0L).longs(256).toArray();
+
+    private final AbstractHashCalculator calculator;
+    private final ChunkSidecar sidecar;
+
+    public ChunkingHashCalculator(AbstractHashCalculator calculator, ChunkSidecar sidecar) {
+        this.calculator = calculator;
+        this.sidecar = sidecar;
+    }
+
+    @Override
+    public String getErrorHash() {
+        return calculator.getErrorHash();
+    }
+
+    @Override
+    protected Hasher createHasher() {
+        try {
+            return new ChunkingHasher(calculator.createHasher(), MessageDigest.getInstance(CHUNK_DIGEST), sidecar);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected String digest(String fileName, Hasher hasher) throws IOException {
+        ChunkingHasher chunkingHasher = (ChunkingHasher) hasher;
+        String hash = chunkingHasher.digest();
+        if (chunkingHasher.failure != null) {
+            throw chunkingHasher.failure;
+        }
+        sidecar.writeEnd(chunkingHasher.file(), chunkingHasher.chunkCount, fileName);
+        return hash;
+    }
+
+    private static class ChunkingHasher implements Hasher {
+        private final Hasher fileHasher;
+        private final MessageDigest chunkDigest;
+        private final ChunkSidecar sidecar;
+        private final byte[] digest;
+        private long file;
+        private WriteException failure;
+        private int chunkCount;
+        private int chunkLength;
+        private long fingerprint;
+
+        ChunkingHasher(Hasher fileHasher, MessageDigest chunkDigest, ChunkSidecar sidecar) {
+            this.fileHasher = fileHasher;
+            this.chunkDigest = chunkDigest;
+            this.sidecar = sidecar;
+            this.digest = new byte[chunkDigest.getDigestLength()];
+        }
+
+        @Override
+        public void reset() {
+            fileHasher.reset();
+            chunkDigest.reset();
+            file = -1;
+            failure = null;
+            chunkCount = 0;
+            chunkLength = 0;
+            fingerprint = 0;
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+            fileHasher.update(buffer);
+            int chunkStart = start;
+            for (int i = start; i < limit; i++) {
+                chunkLength++;
+                fingerprint = (fingerprint << 1) + GEAR[buffer.get(i) & 0xff];
+                if (chunkLength >= MIN_CHUNK && ((fingerprint & BOUNDARY_MASK) == 0 || chunkLength >= MAX_CHUNK)) {
+                    buffer.limit(i + 1).position(chunkStart);
+                    chunkDigest.update(buffer);
+                    buffer.limit(limit);
+                    finishChunk();
+                    chunkStart = i + 1;
+                }
+            }
+            buffer.position(chunkStart);
+            chunkDigest.update(buffer);
+        }
+
+        @Override
+        public String digest() {
+            if (chunkLength > 0) {
+                finishChunk();
+            }
+            return fileHasher.digest();
+        }
+
+        long file() {
+            if (file < 0) {
+                file = sidecar.nextFile();
+            }
+            return file;
+        }
+
+        private void finishChunk() {
+            try {
+                chunkDigest.digest(digest, 0, digest.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            if (failure == null) {
+                try {
+                    sidecar.writeChunk(file(), chunkLength, digest);
+                } catch (WriteException e) {
+                    failure = e;
+                }
+            }
+            chunkCount++;
+            chunkLength = 0;
+            fingerprint = 0;
+        }
+    }
+}
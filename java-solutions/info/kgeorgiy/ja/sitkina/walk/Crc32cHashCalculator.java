@@ -0,0 +1,40 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+public class Crc32cHashCalculator extends AbstractHashCalculator {
+    private static final int DIGITS = Integer.BYTES * 2;
+    private static final String ERROR_HASH = "0".repeat(DIGITS);
+
+    public String getErrorHash() {
+        return ERROR_HASH;
+    }
+
+    @Override
+    protected Hasher createHasher() {
+        return new Crc32cHasher();
+    }
+
+    private static class Crc32cHasher implements Hasher {
+        private final CRC32C crc = new CRC32C();
+        private final char[] chars = new char[DIGITS];
+
+        @Override
+        public void reset() {
+            crc.reset();
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            crc.update(buffer);
+        }
+
+        @Override
+        public String digest() {
+            Hex.encode(crc.getValue(), DIGITS, chars, 0);
+            reset();
+            return new String(chars);
+        }
+    }
+}
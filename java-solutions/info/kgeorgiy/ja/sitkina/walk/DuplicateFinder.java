@@ -0,0 +1,187 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds groups of non-empty files with equal content in three stages. Files are grouped by size taken
+ * from directory metadata, then by a hash of their first and last {@link #PART_SIZE} bytes.
+ * Only files that still collide are hashed in full. A file reached from several roots is reported once.
+ */
+public class DuplicateFinder {
+    public static final String DEFAULT_MODE = "sha-256";
+    private static final int PART_SIZE = 1 << 12;
+
+    /**
+     * Takes {@code input output [mode]}; the walk options do not apply and are rejected.
+     */
+    public static void find(String[] args) throws IllegalInputException, WorkFilesException {
+        if (args != null) {
+            for (String arg : args) {
+                if (arg != null && arg.startsWith("--")) {
+                    throw new IllegalInputException("Unsupported option: " + arg);
+                }
+            }
+        }
+        Walker.Arguments arguments = Walker.parseArgs(args, new WalkOptions().setMode(DEFAULT_MODE).setLog(true));
+        find(arguments.input(), arguments.output(), arguments.options());
+    }
+
+    /**
+     * Writes duplicate groups as {@code hash path} lines, separating groups with an empty line.
+     */
+    public static void find(Path inputFilePath, Path outputFilePath,
+                            WalkOptions options) throws IllegalInputException, WorkFilesException {
+        HashCalculator hashCalculator = HashAlgorithms.create(options.getMode());
+        List<String> roots = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(inputFilePath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                roots.add(line);
+            }
+        } catch (IOException | SecurityException e) {
+            throw new WorkFilesException("Reader died :(", e);
+        }
+        List<Group> groups = find(roots, hashCalculator, options);
+        try (Writer writer = Files.newBufferedWriter(outputFilePath, StandardCharsets.UTF_8)) {
+            TextHashOutput output = new TextHashOutput(writer);
+            for (Group group : groups) {
+                for (String fileName : group.files()) {
+                    output.write(group.hash(), fileName);
+                }
+                writer.write(System.lineSeparator());
+            }
+        } catch (IOException | SecurityException e) {
+            throw new WorkFilesException("Writer died :(", e);
+        }
+    }
+
+    /**
+     * Returns duplicate groups in order of first appearance. Files of different sizes are never grouped,
+     * even if their hashes collide.
+     */
+    public static List<Group> find(List<String> roots, HashCalculator hashCalculator,
+                                                 WalkOptions options) {
+        Map<Long, List<String>> bySize = new LinkedHashMap<>();
+        SizeVisitor visitor = new SizeVisitor(bySize);
+        for (String root : roots) {
+            try {
+                Files.walkFileTree(Path.of(root), Collections.emptySet(), options.getDepth(), visitor);
+            } catch (IOException | InvalidPathException | SecurityException e) {
+                log(options, "Error while handling " + root + ": " + e.getMessage());
+            }
+        }
+
+        Hasher partHasher = new XxHash64HashCalculator().createHasher();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(PART_SIZE);
+        List<Group> duplicates = new ArrayList<>();
+        for (Map.Entry<Long, List<String>> sameSize : bySize.entrySet()) {
+            if (sameSize.getValue().size() < 2) {
+                continue;
+            }
+            Map<String, List<String>> byParts = new LinkedHashMap<>();
+            for (String fileName : sameSize.getValue()) {
+                try {
+                    String key = partsHash(fileName, sameSize.getKey(), partHasher, buffer);
+                    byParts.computeIfAbsent(key, k -> new ArrayList<>()).add(fileName);
+                } catch (IOException | InvalidPathException | SecurityException e) {
+                    log(options, "Cannot read " + fileName + ": " + e.getMessage());
+                }
+            }
+            for (List<String> candidates : byParts.values()) {
+                if (candidates.size() < 2) {
+                    continue;
+                }
+                Map<String, List<String>> byHash = new LinkedHashMap<>();
+                for (String fileName : candidates) {
+                    try {
+                        byHash.computeIfAbsent(hashCalculator.hash(fileName), k -> new ArrayList<>()).add(fileName);
+                    } catch (IOException | SecurityException e) {
+                        log(options, "Cannot read " + fileName + ": " + e.getMessage());
+                    }
+                }
+                byHash.forEach((hash, files) -> {
+                    if (files.size() > 1) {
+                        duplicates.add(new Group(sameSize.getKey(), hash, files));
+                    }
+                });
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Files of the same size and full hash.
+     */
+    public record Group(long size, String hash, List<String> files) {
+    }
+
+    private static String partsHash(String fileName, long size, Hasher hasher, ByteBuffer buffer) throws IOException {
+        hasher.reset();
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            readPart(channel, 0, size, hasher, buffer);
+            if (size > PART_SIZE) {
+                readPart(channel, Long.max(PART_SIZE, size - PART_SIZE), size, hasher, buffer);
+            }
+        }
+        return hasher.digest();
+    }
+
+    private static void readPart(FileChannel channel, long position, long size,
+                                 Hasher hasher, ByteBuffer buffer) throws IOException {
+        buffer.clear().limit((int) Long.min(PART_SIZE, size - position));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                break;
+            }
+        }
+        buffer.flip();
+        hasher.update(buffer);
+    }
+
+    private static void log(WalkOptions options, String message) {
+        if (options.isLog()) {
+            System.err.println(message);
+        }
+    }
+
+    private static class SizeVisitor extends SimpleFileVisitor<Path> {
+        private final Map<Long, List<String>> bySize;
+        private final Set<Path> seen = new HashSet<>();
+
+        SizeVisitor(Map<Long, List<String>> bySize) {
+            this.bySize = bySize;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (attrs.isRegularFile() && attrs.size() > 0 && seen.add(file.toAbsolutePath().normalize())) {
+                bySize.computeIfAbsent(attrs.size(), size -> new ArrayList<>()).add(file.toString());
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+public class Duplicates {
+    public static void main(String[] args) {
+        try {
+            DuplicateFinder.find(args);
+        } catch (WorkFilesException | IllegalInputException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
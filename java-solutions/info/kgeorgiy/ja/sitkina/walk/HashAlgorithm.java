@@ -0,0 +1,10 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+/**
+ * Named hash algorithm usable as a walk mode. Additional algorithms are discovered through {@link java.util.ServiceLoader}.
+ */
+public interface HashAlgorithm {
+    String name();
+
+    HashCalculator createCalculator();
+}
@@ -0,0 +1,74 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public final class HashAlgorithms {
+    public static final String MODE_SEPARATOR = ",";
+
+    private static final Map<String, HashAlgorithm> ALGORITHMS = load();
+
+    private HashAlgorithms() {
+    }
+
+    /**
+     * Creates calculator for a single algorithm name or for several names joined by {@link #MODE_SEPARATOR},
+     * in which case all digests are computed in one pass over each file.
+     */
+    public static HashCalculator create(String mode) throws IllegalInputException {
+        String[] names = mode.split(MODE_SEPARATOR, -1);
+        if (names.length == 1) {
+            return get(mode).createCalculator();
+        }
+        List<AbstractHashCalculator> calculators = new ArrayList<>();
+        for (String name : names) {
+            if (!(get(name).createCalculator() instanceof AbstractHashCalculator calculator)) {
+                throw new IllegalInputException("Mode " + name + " cannot be combined with other modes");
+            }
+            calculators.add(calculator);
+        }
+        return new MultiHashCalculator(calculators);
+    }
+
+    public static Set<String> names() {
+        return Collections.unmodifiableSet(ALGORITHMS.keySet());
+    }
+
+    private static HashAlgorithm get(String name) throws IllegalInputException {
+        HashAlgorithm algorithm = ALGORITHMS.get(name);
+        if (algorithm == null) {
+            throw new IllegalInputException("Incorrect mode " + name);
+        }
+        return algorithm;
+    }
+
+    private static Map<String, HashAlgorithm> load() {
+        Map<String, HashAlgorithm> algorithms = new LinkedHashMap<>();
+        register(algorithms, new BuiltinAlgorithm("jenkins", JenkinsHashCalculator::new));
+        register(algorithms, new BuiltinAlgorithm("sha-1", Sha1HashCalculator::new));
+        register(algorithms, new BuiltinAlgorithm("sha-256", () -> new MessageDigestHashCalculator("SHA-256")));
+        register(algorithms, new BuiltinAlgorithm("crc32c", Crc32cHashCalculator::new));
+        register(algorithms, new BuiltinAlgorithm("xxhash64", XxHash64HashCalculator::new));
+        for (HashAlgorithm algorithm : ServiceLoader.load(HashAlgorithm.class)) {
+            register(algorithms, algorithm);
+        }
+        return algorithms;
+    }
+
+    private static void register(Map<String, HashAlgorithm> algorithms, HashAlgorithm algorithm) {
+        algorithms.putIfAbsent(algorithm.name(), algorithm);
+    }
+
+    private record BuiltinAlgorithm(String name, Supplier<HashCalculator> factory) implements HashAlgorithm {
+        @Override
+        public HashCalculator createCalculator() {
+            return factory.get();
+        }
+    }
+}
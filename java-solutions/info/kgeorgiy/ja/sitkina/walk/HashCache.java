@@ -0,0 +1,121 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashes of regular files keyed by absolute path, size and last-modified time.
+ * Only entries looked up or stored during the current run are saved, so removed files drop out of the cache.
+ */
+public class HashCache {
+    private static final int MAGIC = 0x57484331;
+    private static final int VERSION = 1;
+    private static final int MIN_ENTRY_SIZE = Integer.BYTES + 2 * Long.BYTES + Short.BYTES;
+
+    private final String mode;
+    private final Map<String, Entry> loaded;
+    private final Map<String, Entry> used = new ConcurrentHashMap<>();
+
+    public HashCache(String mode) {
+        this(mode, new ConcurrentHashMap<>());
+    }
+
+    private HashCache(String mode, Map<String, Entry> loaded) {
+        this.mode = mode;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Loads cache for the given mode. Missing, corrupted or other mode's caches are treated as empty.
+     */
+    public static HashCache load(Path file, String mode) throws IOException {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long size = Files.size(file);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(mode)) {
+                return new HashCache(mode);
+            }
+            int count = in.readInt();
+            if (count < 0 || count > size / MIN_ENTRY_SIZE) {
+                return new HashCache(mode);
+            }
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                if (length < 0 || length > size) {
+                    return new HashCache(mode);
+                }
+                byte[] path = new byte[length];
+                in.readFully(path);
+                entries.put(new String(path, StandardCharsets.UTF_8), new Entry(in.readLong(), in.readLong(), in.readUTF()));
+            }
+        } catch (NoSuchFileException | EOFException | UTFDataFormatException e) {
+            return new HashCache(mode);
+        }
+        return new HashCache(mode, entries);
+    }
+
+    public static void invalidate(Path file) throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void invalidate() {
+        loaded.clear();
+        used.clear();
+    }
+
+    public String get(String path, long size, long modified) {
+        Entry entry = used.get(path);
+        if (entry == null) {
+            entry = loaded.get(path);
+        }
+        if (entry == null || entry.size() != size || entry.modified() != modified) {
+            return null;
+        }
+        used.put(path, entry);
+        return entry.hash();
+    }
+
+    public void put(String path, long size, long modified, String hash) {
+        used.put(path, new Entry(size, modified, hash));
+    }
+
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(mode);
+                Map<String, Entry> entries = Map.copyOf(used);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    byte[] path = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(path.length);
+                    out.write(path);
+                    out.writeLong(entry.getValue().size());
+                    out.writeLong(entry.getValue().modified());
+                    out.writeUTF(entry.getValue().hash());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private record Entry(long size, long modified, String hash) {
+    }
+}
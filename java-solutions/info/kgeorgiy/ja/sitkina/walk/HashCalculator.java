@@ -1,7 +1,17 @@
 package info.kgeorgiy.ja.sitkina.walk;
 
+import java.io.IOException;
+
 public interface HashCalculator {
     String getErrorHash();
 
-    String calcHash(String fileName);
+    String hash(String fileName) throws IOException;
+
+    default String calcHash(String fileName) {
+        try {
+            return hash(fileName);
+        } catch (IOException | SecurityException e) {
+            return getErrorHash();
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+/**
+ * Destination of hashed files, called in traversal order from a single thread.
+ */
+public interface HashOutput extends AutoCloseable {
+    void write(String hash, String fileName) throws WriteException;
+
+    default void writeError(String errorHash, String fileName, Exception cause) throws WriteException {
+        write(errorHash, fileName);
+    }
+
+    default void flush() throws WriteException {
+    }
+
+    @Override
+    default void close() throws WriteException {
+    }
+}
@@ -0,0 +1,11 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+/**
+ * Hash of a single walked file. For files that could not be hashed {@code hash} is the error hash
+ * and {@code error} is the cause.
+ */
+public record HashRecord(String path, String hash, Exception error) {
+    public boolean isError() {
+        return error != null;
+    }
+}
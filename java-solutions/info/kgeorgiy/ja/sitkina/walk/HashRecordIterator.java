@@ -0,0 +1,135 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs the walk on a background thread started by the first {@link #hasNext()} call.
+ * The thread blocks once {@link #CAPACITY} records are waiting, so memory does not depend on the tree size.
+ * Whatever the walk throws is rethrown to the consumer after the records produced before it.
+ */
+final class HashRecordIterator implements Iterator<HashRecord>, AutoCloseable {
+    private static final int CAPACITY = 1024;
+    private static final HashRecord END = new HashRecord(null, null, null);
+
+    private final BlockingQueue<HashRecord> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final Producer producer;
+    private Thread thread;
+    private volatile Throwable failure;
+    private HashRecord next;
+    private boolean finished;
+
+    private HashRecordIterator(Producer producer) {
+        this.producer = producer;
+    }
+
+    static Stream<HashRecord> stream(Producer producer) {
+        HashRecordIterator iterator = new HashRecordIterator(producer);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            start();
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for hash"));
+            }
+            if (next == END) {
+                next = null;
+                finished = true;
+                rethrow(failure);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public HashRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        HashRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(() -> {
+            try {
+                producer.produce(new QueueOutput());
+            } catch (IOException | RuntimeException | Error e) {
+                failure = e;
+            } finally {
+                try {
+                    queue.put(END);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void rethrow(Throwable failure) {
+        switch (failure) {
+            case null -> {
+            }
+            case IOException e -> throw new UncheckedIOException(e);
+            case RuntimeException e -> throw e;
+            case Error e -> throw e;
+            default -> throw new IllegalStateException(failure);
+        }
+    }
+
+    @FunctionalInterface
+    interface Producer {
+        void produce(HashOutput output) throws IOException;
+    }
+
+    private class QueueOutput implements HashOutput {
+        @Override
+        public void write(String hash, String fileName) throws WriteException {
+            put(new HashRecord(fileName, hash, null));
+        }
+
+        @Override
+        public void writeError(String errorHash, String fileName, Exception cause) throws WriteException {
+            put(new HashRecord(fileName, errorHash, cause));
+        }
+
+        private void put(HashRecord record) throws WriteException {
+            try {
+                queue.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WriteException("Hash stream closed", e);
+            }
+        }
+    }
+}
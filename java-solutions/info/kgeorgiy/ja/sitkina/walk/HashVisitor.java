@@ -22,7 +22,7 @@ public class HashVisitor<T extends Path> extends SimpleFileVisitor<T> {
 
     @Override
     public FileVisitResult visitFileFailed(T file, IOException exc) throws WriteException {
-        writer.writeErrorHash(file.toString());
+        writer.writeErrorHash(file.toString(), exc);
         return FileVisitResult.CONTINUE;
     }
 }
@@ -3,28 +3,49 @@ package info.kgeorgiy.ja.sitkina.walk;
 import java.io.IOException;
 import java.io.Writer;
 
-public class HashWriter {
-    private final Writer writer;
+public class HashWriter implements AutoCloseable {
+    private final HashOutput output;
     private final HashCalculator hashCalculator;
 
     public HashWriter(Writer writer, HashCalculator hashCalculator) {
-        this.writer = writer;
+        this(new TextHashOutput(writer), hashCalculator);
+    }
+
+    public HashWriter(HashOutput output, HashCalculator hashCalculator) {
+        this.output = output;
         this.hashCalculator = hashCalculator;
     }
 
     public void writeHash(String fileName) throws WriteException {
+        String hash;
         try {
-            writer.write(String.format("%s %s%n", hashCalculator.calcHash(fileName), fileName));
+            hash = hashCalculator.hash(fileName);
+        } catch (WriteException e) {
+            throw e;
         } catch (IOException | SecurityException e) {
-            throw new WriteException("Cannot write to output file", e);
+            writeError(fileName, e);
+            return;
         }
+        write(hash, fileName);
     }
 
-    public void writeErrorHash(String fileName) throws WriteException {
-        try {
-            writer.write(String.format("%s %s%n", hashCalculator.getErrorHash(), fileName));
-        } catch (IOException | SecurityException e) {
-            throw new WriteException("Cannot write to output file", e);
-        }
+    public void writeErrorHash(String fileName, Exception cause) throws WriteException {
+        writeError(fileName, cause);
+    }
+
+    public void flush() throws WriteException {
+        output.flush();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    protected void write(String hash, String fileName) throws WriteException {
+        output.write(hash, fileName);
+    }
+
+    protected void writeError(String fileName, Exception cause) throws WriteException {
+        output.writeError(hashCalculator.getErrorHash(), fileName, cause);
     }
 }
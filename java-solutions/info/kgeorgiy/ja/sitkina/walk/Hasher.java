@@ -0,0 +1,17 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Mutable hashing state of a single file. Instances are reused and are not thread-safe.
+ */
+public interface Hasher {
+    void reset();
+
+    /**
+     * Consumes all remaining bytes of the buffer, which may be direct or memory-mapped.
+     */
+    void update(ByteBuffer buffer);
+
+    String digest();
+}
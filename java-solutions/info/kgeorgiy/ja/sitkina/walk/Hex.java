@@ -0,0 +1,27 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+/**
+ * Table-driven lowercase hex encoding into caller-owned buffers.
+ */
+final class Hex {
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private Hex() {
+    }
+
+    static int encode(byte[] bytes, int length, char[] out, int position) {
+        for (int i = 0; i < length; i++) {
+            out[position++] = DIGITS[(bytes[i] >>> 4) & 0xf];
+            out[position++] = DIGITS[bytes[i] & 0xf];
+        }
+        return position;
+    }
+
+    static int encode(long value, int digits, char[] out, int position) {
+        for (int i = digits - 1; i >= 0; i--) {
+            out[position + i] = DIGITS[(int) value & 0xf];
+            value >>>= 4;
+        }
+        return position + digits;
+    }
+}
@@ -1,41 +1,50 @@
 package info.kgeorgiy.ja.sitkina.walk;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-
-public class JenkinsHashCalculator implements HashCalculator {
-    private static final String ERROR_HASH = String.format("%08x", 0);
-    private static final int BUFFER_SIZE = 1024;
-    private static final byte[] buffer = new byte[BUFFER_SIZE];
-
-    public String calcHash(String fileName) {
-        int hash = 0;
-        try (InputStream stream = new BufferedInputStream(new FileInputStream(fileName))) {
-            int readBytes = stream.read(buffer);
-            while (readBytes != -1) {
-                for (int i = 0; i < readBytes; i++) {
-                    hash += Byte.toUnsignedInt(buffer[i]);
-                    hash += hash << 10;
-                    hash ^= hash >>> 6;
-                }
-                readBytes = stream.read(buffer);
-            }
-            hash += hash << 3;
-            hash ^= hash >>> 11;
-            hash += hash << 15;
-        } catch (IOException | SecurityException e) {
-            return getErrorHash();
-        }
-        return hashToString(hash);
-    }
+import java.nio.ByteBuffer;
+
+public class JenkinsHashCalculator extends AbstractHashCalculator {
+    private static final int DIGITS = Integer.BYTES * 2;
+    private static final String ERROR_HASH = "0".repeat(DIGITS);
 
     public String getErrorHash() {
         return ERROR_HASH;
     }
 
-    private String hashToString(int hash) {
-        return String.format("%08x", hash);
+    @Override
+    protected Hasher createHasher() {
+        return new JenkinsHasher();
+    }
+
+    private static class JenkinsHasher implements Hasher {
+        private final char[] chars = new char[DIGITS];
+        private int hash;
+
+        @Override
+        public void reset() {
+            hash = 0;
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            int hash = this.hash;
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                hash += Byte.toUnsignedInt(buffer.get(i));
+                hash += hash << 10;
+                hash ^= hash >>> 6;
+            }
+            buffer.position(buffer.limit());
+            this.hash = hash;
+        }
+
+        @Override
+        public String digest() {
+            int hash = this.hash;
+            hash += hash << 3;
+            hash ^= hash >>> 11;
+            hash += hash << 15;
+            reset();
+            Hex.encode(Integer.toUnsignedLong(hash), DIGITS, chars, 0);
+            return new String(chars);
+        }
     }
 }
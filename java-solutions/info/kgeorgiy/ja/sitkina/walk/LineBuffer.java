@@ -0,0 +1,31 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+/**
+ * Reusable buffer holding a single {@code hash path} output line.
+ */
+final class LineBuffer {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int INITIAL_LENGTH = 256;
+
+    private char[] chars = new char[INITIAL_LENGTH];
+    private int length;
+
+    void set(String hash, String fileName) {
+        length = hash.length() + 1 + fileName.length() + LINE_SEPARATOR.length();
+        if (chars.length < length) {
+            chars = new char[Integer.max(length, chars.length << 1)];
+        }
+        hash.getChars(0, hash.length(), chars, 0);
+        chars[hash.length()] = ' ';
+        fileName.getChars(0, fileName.length(), chars, hash.length() + 1);
+        LINE_SEPARATOR.getChars(0, LINE_SEPARATOR.length(), chars, length - LINE_SEPARATOR.length());
+    }
+
+    char[] chars() {
+        return chars;
+    }
+
+    int length() {
+        return length;
+    }
+}
@@ -0,0 +1,33 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+class ListeningHashOutput implements HashOutput {
+    private final HashOutput output;
+    private final WalkListener listener;
+
+    ListeningHashOutput(HashOutput output, WalkListener listener) {
+        this.output = output;
+        this.listener = listener;
+    }
+
+    @Override
+    public void write(String hash, String fileName) throws WriteException {
+        output.write(hash, fileName);
+        listener.recordWritten(fileName, false);
+    }
+
+    @Override
+    public void writeError(String errorHash, String fileName, Exception cause) throws WriteException {
+        output.writeError(errorHash, fileName, cause);
+        listener.recordWritten(fileName, true);
+    }
+
+    @Override
+    public void flush() throws WriteException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws WriteException {
+        output.close();
+    }
+}
@@ -0,0 +1,66 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class MessageDigestHashCalculator extends AbstractHashCalculator {
+    private final String algorithm;
+    private final String errorHash;
+
+    public MessageDigestHashCalculator(String algorithm) {
+        this.algorithm = algorithm;
+        this.errorHash = "0".repeat(createDigest().getDigestLength() << 1);
+    }
+
+    public String getErrorHash() {
+        return errorHash;
+    }
+
+    @Override
+    protected Hasher createHasher() {
+        return new DigestHasher(createDigest());
+    }
+
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class DigestHasher implements Hasher {
+        private final MessageDigest digest;
+        private final byte[] bytes;
+        private final char[] chars;
+
+        DigestHasher(MessageDigest digest) {
+            this.digest = digest;
+            this.bytes = new byte[digest.getDigestLength()];
+            this.chars = new char[bytes.length << 1];
+        }
+
+        @Override
+        public void reset() {
+            digest.reset();
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            digest.update(buffer);
+        }
+
+        @Override
+        public String digest() {
+            try {
+                digest.digest(bytes, 0, bytes.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            Hex.encode(bytes, bytes.length, chars, 0);
+            return new String(chars);
+        }
+    }
+}
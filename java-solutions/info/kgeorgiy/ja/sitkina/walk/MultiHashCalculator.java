@@ -0,0 +1,66 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reads every file once and feeds the same buffers to all calculators.
+ * The hash is the space-separated list of digests in calculators order.
+ */
+public class MultiHashCalculator extends AbstractHashCalculator {
+    private final List<AbstractHashCalculator> calculators;
+    private final String errorHash;
+
+    public MultiHashCalculator(List<AbstractHashCalculator> calculators) {
+        this.calculators = List.copyOf(calculators);
+        this.errorHash = calculators.stream().map(HashCalculator::getErrorHash).collect(Collectors.joining(" "));
+    }
+
+    @Override
+    public String getErrorHash() {
+        return errorHash;
+    }
+
+    @Override
+    protected Hasher createHasher() {
+        return new MultiHasher(calculators.stream().map(AbstractHashCalculator::createHasher).toList());
+    }
+
+    private static class MultiHasher implements Hasher {
+        private final List<Hasher> hashers;
+        private final StringBuilder builder = new StringBuilder();
+
+        MultiHasher(List<Hasher> hashers) {
+            this.hashers = hashers;
+        }
+
+        @Override
+        public void reset() {
+            for (Hasher hasher : hashers) {
+                hasher.reset();
+            }
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            int position = buffer.position();
+            for (Hasher hasher : hashers) {
+                buffer.position(position);
+                hasher.update(buffer);
+            }
+        }
+
+        @Override
+        public String digest() {
+            builder.setLength(0);
+            for (Hasher hasher : hashers) {
+                if (!builder.isEmpty()) {
+                    builder.append(' ');
+                }
+                builder.append(hasher.digest());
+            }
+            return builder.toString();
+        }
+    }
+}
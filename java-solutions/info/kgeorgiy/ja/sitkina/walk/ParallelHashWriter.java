@@ -0,0 +1,81 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hashes files on a pool of workers while the caller keeps traversing.
+ * Results are written in submission order, so the output matches the sequential {@link HashWriter}.
+ * The calculator is shared by all workers and therefore has to be thread-safe.
+ */
+public class ParallelHashWriter extends HashWriter {
+    private static final int PENDING_PER_THREAD = 64;
+
+    private final ExecutorService executor;
+    private final HashCalculator hashCalculator;
+    private final Queue<PendingHash> pending = new ArrayDeque<>();
+    private final int maxPending;
+
+    public ParallelHashWriter(HashOutput output, HashCalculator hashCalculator, int threads) {
+        super(output, hashCalculator);
+        this.hashCalculator = hashCalculator;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.maxPending = threads * PENDING_PER_THREAD;
+    }
+
+    @Override
+    public void writeHash(String fileName) throws WriteException {
+        enqueue(fileName, executor.submit(() -> hashCalculator.hash(fileName)));
+    }
+
+    @Override
+    public void writeErrorHash(String fileName, Exception cause) throws WriteException {
+        enqueue(fileName, CompletableFuture.failedFuture(cause));
+    }
+
+    @Override
+    public void flush() throws WriteException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        super.flush();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void enqueue(String fileName, Future<String> hash) throws WriteException {
+        pending.add(new PendingHash(fileName, hash));
+        while (!pending.isEmpty() && (pending.size() > maxPending || pending.peek().hash().isDone())) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws WriteException {
+        PendingHash next = pending.remove();
+        String hash;
+        try {
+            hash = next.hash().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteException("Interrupted while waiting for hash of " + next.fileName(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof WriteException cause) {
+                throw cause;
+            }
+            writeError(next.fileName(), e.getCause() instanceof Exception cause ? cause : e);
+            return;
+        }
+        write(hash, next.fileName());
+    }
+
+    private record PendingHash(String fileName, Future<String> hash) {
+    }
+}
@@ -0,0 +1,174 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lists directories and reads attributes on a work-stealing {@link ForkJoinPool}, while the visitor
+ * is called from the caller thread in the order {@link Files#walkFileTree} would use.
+ * Only a window of subdirectories ahead of the visited one is listed in advance at every level,
+ * so memory grows with tree depth rather than with tree size.
+ */
+public class ParallelTreeWalker implements TreeWalker {
+    private static final int WINDOW_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final int window;
+
+    public ParallelTreeWalker(int threads) {
+        this.pool = new ForkJoinPool(threads);
+        this.window = threads * WINDOW_PER_THREAD;
+    }
+
+    @Override
+    public void walkFileTree(Path start, int maxDepth, FileVisitor<? super Path> visitor) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(start, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            visitor.visitFileFailed(start, e);
+            return;
+        }
+        if (maxDepth <= 0 || !attrs.isDirectory()) {
+            visitor.visitFile(start, attrs);
+            return;
+        }
+        visit(pool.submit(new Lister(start, attrs, 1, maxDepth)).join(), visitor);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private FileVisitResult visit(Listing listing, FileVisitor<? super Path> visitor) throws IOException {
+        if (listing.openError() != null) {
+            return visitor.visitFileFailed(listing.directory(), listing.openError());
+        }
+        FileVisitResult result = visitor.preVisitDirectory(listing.directory(), listing.attrs());
+        if (result != FileVisitResult.CONTINUE) {
+            return result == FileVisitResult.SKIP_SUBTREE ? FileVisitResult.CONTINUE : result;
+        }
+        List<Entry> entries = listing.entries();
+        int forked = 0;
+        int inFlight = 0;
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                for (; forked < entries.size() && (inFlight < window || forked <= i); forked++) {
+                    if (entries.get(forked).fork(pool)) {
+                        inFlight++;
+                    }
+                }
+                Entry entry = entries.get(i);
+                entries.set(i, null);
+                if (entry.error != null) {
+                    result = visitor.visitFileFailed(entry.path, entry.error);
+                } else if (entry.task == null) {
+                    result = visitor.visitFile(entry.path, entry.attrs);
+                } else {
+                    inFlight--;
+                    result = visit(entry.task.join(), visitor);
+                }
+                if (result == FileVisitResult.TERMINATE) {
+                    return result;
+                }
+                if (result == FileVisitResult.SKIP_SIBLINGS) {
+                    break;
+                }
+            }
+        } finally {
+            for (int i = 0; i < forked; i++) {
+                Entry entry = entries.get(i);
+                if (entry != null && entry.task != null) {
+                    entry.task.cancel(false);
+                }
+            }
+        }
+        return visitor.postVisitDirectory(listing.directory(), listing.iterationError());
+    }
+
+    private record Listing(Path directory, BasicFileAttributes attrs, List<Entry> entries,
+                           IOException openError, IOException iterationError) {
+    }
+
+    private static final class Entry {
+        private final Path path;
+        private final BasicFileAttributes attrs;
+        private final IOException error;
+        private final Lister lister;
+        private ForkJoinTask<Listing> task;
+
+        Entry(Path path, BasicFileAttributes attrs, IOException error, Lister lister) {
+            this.path = path;
+            this.attrs = attrs;
+            this.error = error;
+            this.lister = lister;
+        }
+
+        boolean fork(ForkJoinPool pool) {
+            if (lister == null) {
+                return false;
+            }
+            task = pool.submit(lister);
+            return true;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Lister extends RecursiveTask<Listing> {
+        private final Path directory;
+        private final BasicFileAttributes attrs;
+        private final int childDepth;
+        private final int maxDepth;
+
+        Lister(Path directory, BasicFileAttributes attrs, int childDepth, int maxDepth) {
+            this.directory = directory;
+            this.attrs = attrs;
+            this.childDepth = childDepth;
+            this.maxDepth = maxDepth;
+        }
+
+        @Override
+        protected Listing compute() {
+            DirectoryStream<Path> stream;
+            try {
+                stream = Files.newDirectoryStream(directory);
+            } catch (IOException e) {
+                return new Listing(directory, attrs, List.of(), e, null);
+            }
+            List<Entry> entries = new ArrayList<>();
+            IOException iterationError = null;
+            try (stream) {
+                for (Path child : stream) {
+                    try {
+                        BasicFileAttributes childAttrs = Files.readAttributes(child, BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS);
+                        boolean descend = childDepth < maxDepth && childAttrs.isDirectory();
+                        entries.add(new Entry(child, childAttrs, null,
+                                descend ? new Lister(child, childAttrs, childDepth + 1, maxDepth) : null));
+                    } catch (IOException e) {
+                        entries.add(new Entry(child, null, e, null));
+                    } catch (SecurityException ignored) {
+                    }
+                }
+            } catch (DirectoryIteratorException e) {
+                iterationError = e.getCause();
+            } catch (IOException ignored) {
+                // Close failures are ignored, as Files.walkFileTree does
+            }
+            return new Listing(directory, attrs, entries, null, iterationError);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class TextHashOutput implements HashOutput {
+    private final Writer writer;
+    private final LineBuffer line = new LineBuffer();
+
+    public TextHashOutput(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(String hash, String fileName) throws WriteException {
+        line.set(hash, fileName);
+        try {
+            writer.write(line.chars(), 0, line.length());
+        } catch (IOException | SecurityException e) {
+            throw new WriteException("Cannot write to output file", e);
+        }
+    }
+
+    @Override
+    public void flush() throws WriteException {
+        try {
+            writer.flush();
+        } catch (IOException | SecurityException e) {
+            throw new WriteException("Cannot write to output file", e);
+        }
+    }
+
+    @Override
+    public void close() throws WriteException {
+        try {
+            writer.close();
+        } catch (IOException | SecurityException e) {
+            throw new WriteException("Cannot close output file", e);
+        }
+    }
+}
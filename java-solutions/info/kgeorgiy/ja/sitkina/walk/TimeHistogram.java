@@ -0,0 +1,45 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations with power-of-two nanosecond buckets:
+ * bucket {@code i > 0} counts durations in {@code [2^(i-1), 2^i)}.
+ */
+class TimeHistogram {
+    static final int BUCKETS = Long.SIZE;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    void record(long nanos) {
+        counts.incrementAndGet(Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(Math.max(0, nanos))));
+    }
+
+    long[] snapshot() {
+        long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Upper bound of the bucket containing the given percentile, in nanoseconds.
+     */
+    long percentile(double fraction) {
+        long[] snapshot = snapshot();
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target && seen > 0) {
+                return i == 0 ? 0 : 1L << Math.min(i, BUCKETS - 2);
+            }
+        }
+        return 0;
+    }
+}
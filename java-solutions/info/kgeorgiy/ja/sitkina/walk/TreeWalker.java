@@ -0,0 +1,24 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.IOException;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+/**
+ * Traversal with the semantics of {@link Files#walkFileTree(Path, java.util.Set, int, FileVisitor)} without following links.
+ */
+public interface TreeWalker extends AutoCloseable {
+    TreeWalker SEQUENTIAL = (start, maxDepth, visitor) -> Files.walkFileTree(start, Collections.emptySet(), maxDepth, visitor);
+
+    void walkFileTree(Path start, int maxDepth, FileVisitor<? super Path> visitor) throws IOException;
+
+    @Override
+    default void close() {
+    }
+
+    static TreeWalker create(int threads) {
+        return threads > 1 ? new ParallelTreeWalker(threads) : SEQUENTIAL;
+    }
+}
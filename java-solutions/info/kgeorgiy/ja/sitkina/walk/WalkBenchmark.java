@@ -0,0 +1,149 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import info.kgeorgiy.ja.sitkina.benchmark.Benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for hash throughput, walk throughput and output formatting.
+ * Usage: {@code WalkBenchmark [work directory] [max file size in MiB] [threads]}.
+ */
+public class WalkBenchmark {
+    private static final Benchmark BENCHMARK = new Benchmark(3, 5);
+    private static final long KIB = 1L << 10;
+    private static final long MIB = 1L << 20;
+    private static final long[] FILE_SIZES = {KIB, 64 * KIB, MIB, 16 * MIB, 256 * MIB, 1024 * MIB};
+    private static final int FORMAT_LINES = 1_000_000;
+
+    private final Path root;
+    private final Random random = new Random(4875043285743285204L);
+
+    private WalkBenchmark(Path root) {
+        this.root = root;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path root = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("walk-benchmark");
+        long maxSize = args.length > 1 ? Long.parseLong(args[1]) * MIB : 64 * MIB;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        WalkBenchmark benchmark = new WalkBenchmark(root);
+        try {
+            benchmark.hashThroughput(maxSize);
+            benchmark.walkThroughput(threads);
+            benchmark.formatting();
+        } finally {
+            if (args.length == 0) {
+                delete(root);
+            }
+        }
+    }
+
+    private void hashThroughput(long maxSize) throws IOException, IllegalInputException {
+        for (long size : FILE_SIZES) {
+            if (size > maxSize) {
+                break;
+            }
+            Path file = root.resolve("hash-" + size + ".bin");
+            createFile(file, size);
+            int repeat = (int) Long.max(1, 64 * MIB / size);
+            for (String mode : HashAlgorithms.names()) {
+                HashCalculator calculator = HashAlgorithms.create(mode);
+                String name = "hash " + mode + " " + size / KIB + " KiB";
+                BENCHMARK.measure(name, (double) size * repeat / MIB, "MiB", () -> {
+                    for (int i = 0; i < repeat; i++) {
+                        calculator.calcHash(file.toString());
+                    }
+                });
+            }
+            Files.delete(file);
+        }
+    }
+
+    private void walkThroughput(int threads) throws IOException {
+        Path wide = createTree("wide", 1, 1, 10_000, 4 * KIB);
+        Path deep = createTree("deep", 200, 1, 20, 4 * KIB);
+        Path tiny = createTree("tiny", 2, 30, 100, 64);
+        for (Path tree : List.of(wide, deep, tiny)) {
+            Path input = root.resolve(tree.getFileName() + ".in");
+            Path output = root.resolve(tree.getFileName() + ".out");
+            Files.writeString(input, tree + System.lineSeparator());
+            long bytes = treeSize(tree);
+            for (int walkThreads : threads > 1 ? new int[]{1, threads} : new int[]{1}) {
+                WalkOptions options = new WalkOptions().setThreads(walkThreads);
+                BENCHMARK.measure("walk " + tree.getFileName() + " threads=" + walkThreads, (double) bytes / MIB, "MiB",
+                        () -> Walker.walk(input, output, options));
+            }
+        }
+    }
+
+    private void formatting() throws IOException {
+        try (HashWriter writer = new HashWriter(Writer.nullWriter(), new JenkinsHashCalculator())) {
+            String hash = "0123456789abcdef0123456789abcdef01234567";
+            String fileName = root.resolve("some/directory/with/a/file.bin").toString();
+            BENCHMARK.measure("format " + FORMAT_LINES + " lines", () -> {
+                for (int i = 0; i < FORMAT_LINES; i++) {
+                    writer.write(hash, fileName);
+                }
+            });
+        }
+    }
+
+    private Path createTree(String name, int depth, int width, int files, long fileSize) throws IOException {
+        Path tree = root.resolve(name);
+        List<Path> level = List.of(tree);
+        for (int d = 0; d < depth; d++) {
+            List<Path> next = new ArrayList<>();
+            for (Path directory : level) {
+                Files.createDirectories(directory);
+                for (int f = 0; f < files; f++) {
+                    createFile(directory.resolve("f" + f), fileSize);
+                }
+                for (int w = 0; w < width; w++) {
+                    next.add(directory.resolve("d" + w));
+                }
+            }
+            level = next;
+        }
+        return tree;
+    }
+
+    private void createFile(Path file, long size) throws IOException {
+        byte[] block = new byte[(int) Long.min(size, MIB)];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                random.nextBytes(block);
+                out.write(block, 0, (int) Long.min(block.length, size - written));
+            }
+        }
+    }
+
+    private static long treeSize(Path tree) throws IOException {
+        try (Stream<Path> files = Files.walk(tree)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        }
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Position of an interrupted walk: index of the current input root, number of records
+ * already written for that root and length of the output flushed up to this point.
+ */
+record WalkCheckpoint(String mode, long root, long records, long outputBytes) {
+    private static final int MAGIC = 0x57434b50;
+    private static final int VERSION = 1;
+
+    static WalkCheckpoint start(String mode) {
+        return new WalkCheckpoint(mode, 0, 0, 0);
+    }
+
+    /**
+     * Loads checkpoint of the given mode. Missing, corrupted or other mode's checkpoints give {@code null}.
+     */
+    static WalkCheckpoint load(Path file, String mode) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(mode)) {
+                return null;
+            }
+            WalkCheckpoint checkpoint = new WalkCheckpoint(mode, in.readLong(), in.readLong(), in.readLong());
+            if (checkpoint.root() < 0 || checkpoint.records() < 0 || checkpoint.outputBytes() < 0) {
+                return null;
+            }
+            return checkpoint;
+        } catch (NoSuchFileException | EOFException | UTFDataFormatException e) {
+            return null;
+        }
+    }
+
+    void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(mode);
+                out.writeLong(root);
+                out.writeLong(records);
+                out.writeLong(outputBytes);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
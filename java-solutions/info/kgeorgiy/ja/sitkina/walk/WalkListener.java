@@ -0,0 +1,19 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+/**
+ * Receives progress of a walk. Methods may be called concurrently from hashing threads.
+ */
+public interface WalkListener {
+    /**
+     * Called after a file has been read and hashed. Times are in nanoseconds;
+     * for memory-mapped files page faults are accounted as hashing time.
+     */
+    default void fileHashed(String fileName, long bytes, long openNanos, long readNanos, long hashNanos) {
+    }
+
+    /**
+     * Called for every record in output order.
+     */
+    default void recordWritten(String fileName, boolean error) {
+    }
+}
@@ -0,0 +1,128 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.nio.file.Path;
+
+public class WalkOptions {
+    public static final String DEFAULT_MODE = "jenkins";
+
+    private String mode = DEFAULT_MODE;
+    private int depth = Integer.MAX_VALUE;
+    private boolean log = false;
+    private int threads = 1;
+    private Path cacheFile = null;
+    private boolean invalidateCache = false;
+    private Path chunkFile = null;
+    private boolean asyncOutput = false;
+    private int traversalThreads = 1;
+    private WalkListener listener = null;
+    private Path checkpointFile = null;
+    private boolean resume = false;
+
+    public String getMode() {
+        return mode;
+    }
+
+    public WalkOptions setMode(String mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public WalkOptions setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    public boolean isLog() {
+        return log;
+    }
+
+    public WalkOptions setLog(boolean log) {
+        this.log = log;
+        return this;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public WalkOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    public WalkOptions setCacheFile(Path cacheFile) {
+        this.cacheFile = cacheFile;
+        return this;
+    }
+
+    public boolean isInvalidateCache() {
+        return invalidateCache;
+    }
+
+    public WalkOptions setInvalidateCache(boolean invalidateCache) {
+        this.invalidateCache = invalidateCache;
+        return this;
+    }
+
+    public Path getChunkFile() {
+        return chunkFile;
+    }
+
+    public WalkOptions setChunkFile(Path chunkFile) {
+        this.chunkFile = chunkFile;
+        return this;
+    }
+
+    public boolean isAsyncOutput() {
+        return asyncOutput;
+    }
+
+    public WalkOptions setAsyncOutput(boolean asyncOutput) {
+        this.asyncOutput = asyncOutput;
+        return this;
+    }
+
+    public int getTraversalThreads() {
+        return traversalThreads;
+    }
+
+    public WalkOptions setTraversalThreads(int traversalThreads) {
+        this.traversalThreads = traversalThreads;
+        return this;
+    }
+
+    public WalkListener getListener() {
+        return listener;
+    }
+
+    public WalkOptions setListener(WalkListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public WalkOptions setCheckpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+        return this;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public WalkOptions setResume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+}
@@ -0,0 +1,182 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and per-file timings of a walk, exported to JMX by {@link #register()}.
+ * Comparing total read and hash times tells I/O-bound runs from CPU-bound ones.
+ */
+public class WalkStatistics implements WalkListener, WalkStatisticsMXBean {
+    private static final String OBJECT_NAME = "info.kgeorgiy.ja.sitkina.walk:type=WalkStatistics,id=";
+    private static final AtomicInteger IDS = new AtomicInteger();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder openNanos = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final TimeHistogram openTimes = new TimeHistogram();
+    private final TimeHistogram readTimes = new TimeHistogram();
+    private final TimeHistogram hashTimes = new TimeHistogram();
+    private volatile String currentPath = "";
+    private ObjectName objectName;
+
+    @Override
+    public void fileHashed(String fileName, long bytes, long openNanos, long readNanos, long hashNanos) {
+        this.bytes.add(bytes);
+        this.openNanos.add(openNanos);
+        this.readNanos.add(readNanos);
+        this.hashNanos.add(hashNanos);
+        openTimes.record(openNanos);
+        readTimes.record(readNanos);
+        hashTimes.record(hashNanos);
+    }
+
+    @Override
+    public void recordWritten(String fileName, boolean error) {
+        files.increment();
+        if (error) {
+            errors.increment();
+        }
+        currentPath = fileName;
+    }
+
+    /**
+     * Registers this instance in the platform MBean server.
+     */
+    public synchronized void register() throws JMException {
+        if (objectName != null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        while (true) {
+            ObjectName name = new ObjectName(OBJECT_NAME + IDS.incrementAndGet());
+            try {
+                server.registerMBean(this, name);
+                objectName = name;
+                return;
+            } catch (InstanceAlreadyExistsException ignored) {
+            }
+        }
+    }
+
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    @Override
+    public long getFiles() {
+        return files.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public double getFilesPerSecond() {
+        return perSecond(getFiles());
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return perSecond(getBytes());
+    }
+
+    @Override
+    public String getCurrentPath() {
+        return currentPath;
+    }
+
+    @Override
+    public long getOpenNanos() {
+        return openNanos.sum();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return readNanos.sum();
+    }
+
+    @Override
+    public long getHashNanos() {
+        return hashNanos.sum();
+    }
+
+    @Override
+    public long[] getOpenTimeHistogram() {
+        return openTimes.snapshot();
+    }
+
+    @Override
+    public long[] getReadTimeHistogram() {
+        return readTimes.snapshot();
+    }
+
+    @Override
+    public long[] getHashTimeHistogram() {
+        return hashTimes.snapshot();
+    }
+
+    @Override
+    public long getOpenTimeP50() {
+        return openTimes.percentile(0.5);
+    }
+
+    @Override
+    public long getOpenTimeP99() {
+        return openTimes.percentile(0.99);
+    }
+
+    @Override
+    public long getReadTimeP50() {
+        return readTimes.percentile(0.5);
+    }
+
+    @Override
+    public long getReadTimeP99() {
+        return readTimes.percentile(0.99);
+    }
+
+    @Override
+    public long getHashTimeP50() {
+        return hashTimes.percentile(0.5);
+    }
+
+    @Override
+    public long getHashTimeP99() {
+        return hashTimes.percentile(0.99);
+    }
+
+    private double perSecond(long count) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : count * 1e9 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files (%d errors), %d bytes, %.1f files/s, %.1f MiB/s; "
+                        + "open %d ms (p99 < %d us), read %d ms (p99 < %d us), hash %d ms (p99 < %d us)",
+                getFiles(), getErrors(), getBytes(), getFilesPerSecond(), getBytesPerSecond() / (1 << 20),
+                getOpenNanos() / 1_000_000, getOpenTimeP99() / 1000,
+                getReadNanos() / 1_000_000, getReadTimeP99() / 1000,
+                getHashNanos() / 1_000_000, getHashTimeP99() / 1000);
+    }
+}
@@ -0,0 +1,43 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+/**
+ * JMX view of {@link WalkStatistics}. Histograms have power-of-two nanosecond buckets,
+ * percentiles are bucket upper bounds.
+ */
+public interface WalkStatisticsMXBean {
+    long getFiles();
+
+    long getErrors();
+
+    long getBytes();
+
+    double getFilesPerSecond();
+
+    double getBytesPerSecond();
+
+    String getCurrentPath();
+
+    long getOpenNanos();
+
+    long getReadNanos();
+
+    long getHashNanos();
+
+    long[] getOpenTimeHistogram();
+
+    long[] getReadTimeHistogram();
+
+    long[] getHashTimeHistogram();
+
+    long getOpenTimeP50();
+
+    long getOpenTimeP99();
+
+    long getReadTimeP50();
+
+    long getReadTimeP99();
+
+    long getHashTimeP50();
+
+    long getHashTimeP99();
+}
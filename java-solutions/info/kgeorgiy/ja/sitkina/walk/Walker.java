@@ -1,50 +1,107 @@
 package info.kgeorgiy.ja.sitkina.walk;
 
+import javax.management.JMException;
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 public class Walker {
-    private static final String DEFAULT_MODE = "jenkins";
+    private static final String CHUNKS_SUFFIX = ".chunks";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
 
     public static void walk(String[] args, int depth, boolean log) throws IllegalInputException, WorkFilesException {
-        if (args == null) {
-            throw new IllegalInputException("Expected non-null args");
+        Arguments arguments = parseArgs(args, new WalkOptions().setDepth(depth).setLog(log));
+        if (!(arguments.options().getListener() instanceof WalkStatistics statistics)) {
+            walk(arguments.input(), arguments.output(), arguments.options());
+            return;
         }
-        if (args.length != 2 && args.length != 3) {
-            throw new IllegalInputException("Expected 2 or 3 args");
+        try {
+            statistics.register();
+        } catch (JMException e) {
+            System.err.println("Cannot register walk statistics: " + e.getMessage());
         }
-        if (args[0] == null) {
-            throw new IllegalInputException("Expected non-null input");
+        try {
+            walk(arguments.input(), arguments.output(), arguments.options());
+        } finally {
+            try {
+                statistics.unregister();
+            } catch (JMException ignored) {
+            }
+            System.err.println(statistics);
+        }
+    }
+
+    static Arguments parseArgs(String[] args, WalkOptions options) throws IllegalInputException {
+        if (args == null) {
+            throw new IllegalInputException("Expected non-null args");
         }
         if (Arrays.stream(args).anyMatch(Objects::isNull)) {
             throw new IllegalInputException("Expected non-null input");
         }
+        List<String> positional = new ArrayList<>();
+        boolean chunks = false;
+        boolean checkpoint = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> options.setThreads(parsePositive(args, ++i));
+                case "--cache" -> options.setCacheFile(parsePath(args, ++i));
+                case "--invalidate-cache" -> options.setInvalidateCache(true);
+                case "--chunks" -> chunks = true;
+                case "--async-output" -> options.setAsyncOutput(true);
+                case "--traversal-threads" -> options.setTraversalThreads(parsePositive(args, ++i));
+                case "--stats" -> options.setListener(new WalkStatistics());
+                case "--checkpoint" -> checkpoint = true;
+                case "--resume" -> {
+                    checkpoint = true;
+                    options.setResume(true);
+                }
+                default -> positional.add(args[i]);
+            }
+        }
+        if (positional.size() != 2 && positional.size() != 3) {
+            throw new IllegalInputException("Expected 2 or 3 args");
+        }
         Path inputFilePath, outputFilePath;
         try {
-            inputFilePath = Path.of(args[0]);
+            inputFilePath = Path.of(positional.get(0));
         } catch (InvalidPathException e) {
             throw new IllegalInputException("Invalid input path: " + e.getMessage());
         }
         try {
-            outputFilePath = Path.of(args[1]);
+            outputFilePath = Path.of(positional.get(1));
         } catch (InvalidPathException e) {
             throw new IllegalInputException("Invalid output path: " + e.getMessage());
         }
-        String mode = args.length == 3 ? args[2] : DEFAULT_MODE;
-        walk(inputFilePath, outputFilePath, mode, depth, log);
+        if (positional.size() == 3) {
+            options.setMode(positional.get(2));
+        }
+        if (chunks) {
+            options.setChunkFile(outputFilePath.resolveSibling(outputFilePath.getFileName() + CHUNKS_SUFFIX));
+        }
+        if (checkpoint) {
+            options.setCheckpointFile(outputFilePath.resolveSibling(outputFilePath.getFileName() + CHECKPOINT_SUFFIX));
+        }
+        return new Arguments(inputFilePath, outputFilePath, options);
     }
 
     public static void walk(Path inputFilePath, Path outputFilePath, String mode,
                             int depth, boolean log) throws IllegalInputException, WorkFilesException {
+        walk(inputFilePath, outputFilePath, new WalkOptions().setMode(mode).setDepth(depth).setLog(log));
+    }
 
+    public static void walk(Path inputFilePath, Path outputFilePath,
+                            WalkOptions options) throws IllegalInputException, WorkFilesException {
         Path parent = outputFilePath.getParent();
         if (parent != null && !Files.exists(parent)) {
             try {
@@ -52,41 +109,245 @@ public class Walker {
             } catch (IOException ignored) {
             }
         }
-        HashCalculator hashCalculator = createHashCalculator(mode);
-        try (BufferedReader reader = Files.newBufferedReader(inputFilePath, StandardCharsets.UTF_8)) {
-            try (Writer writer = Files.newBufferedWriter(outputFilePath, StandardCharsets.UTF_8)) {
-                HashWriter hashWriter = new HashWriter(writer, hashCalculator);
-                HashVisitor<Path> visitor = new HashVisitor<>(hashWriter);
-                String line;
-                while ((line = reader.readLine()) != null && !line.isEmpty()) {
-                    try {
-                        Walker.makeWalk(hashWriter, line, visitor, depth, log);
-                    } catch (IOException e) {
-                        if (log) {
-                            System.err.println("Error while handling " + line + ": " + e.getMessage());
-                        }
+        HashCalculator hashCalculator = createHashCalculator(options);
+        HashCache cache = loadCache(options);
+        WalkCheckpoint checkpoint = prepareCheckpoint(outputFilePath, options);
+        boolean append = checkpoint != null && checkpoint.outputBytes() > 0;
+        try (ChunkSidecar sidecar = openSidecar(options)) {
+            HashCalculator calculator = decorate(hashCalculator, cache, sidecar, options);
+            try (BufferedReader reader = Files.newBufferedReader(inputFilePath, StandardCharsets.UTF_8)) {
+                try (TreeWalker treeWalker = TreeWalker.create(options.getTraversalThreads());
+                     HashOutput output = openOutput(outputFilePath, options, append);
+                     HashWriter hashWriter = createHashWriter(output, calculator, options)) {
+                    if (checkpoint == null) {
+                        walkRoots(reader, hashWriter, new HashVisitor<>(hashWriter), treeWalker, options);
+                        hashWriter.flush();
+                    } else {
+                        CheckpointingVisitor visitor = new CheckpointingVisitor(hashWriter,
+                                options.getCheckpointFile(), outputFilePath, checkpoint);
+                        walkRoots(reader, hashWriter, visitor, treeWalker, options);
+                        hashWriter.flush();
+                        visitor.finish();
                     }
+                } catch (IOException | SecurityException e) {
+                    throw new WorkFilesException("Writer died :(", e);
                 }
             } catch (IOException | SecurityException e) {
-                throw new WorkFilesException("Writer died :(", e);
+                throw new WorkFilesException("Reader died :(", e);
             }
         } catch (IOException | SecurityException e) {
-            throw new WorkFilesException("Reader died :(", e);
+            throw new WorkFilesException("Cannot write chunk sidecar", e);
+        }
+        try {
+            saveCache(cache, options);
+        } catch (IOException | SecurityException e) {
+            throw new WorkFilesException("Cannot save hash cache", e);
+        }
+    }
+
+    /**
+     * Lazily walks the roots listed in the input file. The walk runs in the background,
+     * staying a bounded number of records ahead of the consumer, and stops when the stream is closed.
+     * Failures to read the input file are thrown as {@link UncheckedIOException} at the end of the stream.
+     */
+    public static Stream<HashRecord> stream(Path inputFilePath,
+                                            WalkOptions options) throws IllegalInputException, WorkFilesException {
+        HashCalculator hashCalculator = createHashCalculator(options);
+        HashCache cache = loadCache(options);
+        return HashRecordIterator.stream(output -> {
+            try (ChunkSidecar sidecar = openSidecar(options);
+                 TreeWalker treeWalker = TreeWalker.create(options.getTraversalThreads());
+                 BufferedReader reader = Files.newBufferedReader(inputFilePath, StandardCharsets.UTF_8);
+                 HashWriter hashWriter = createHashWriter(output,
+                         decorate(hashCalculator, cache, sidecar, options), options)) {
+                walkRoots(reader, hashWriter, new HashVisitor<>(hashWriter), treeWalker, options);
+                hashWriter.flush();
+            }
+            saveCache(cache, options);
+        });
+    }
+
+    /**
+     * Lazily walks the given roots, see {@link #stream(Path, WalkOptions)}.
+     */
+    public static Stream<HashRecord> stream(List<String> roots,
+                                            WalkOptions options) throws IllegalInputException, WorkFilesException {
+        List<String> rootsCopy = List.copyOf(roots);
+        HashCalculator hashCalculator = createHashCalculator(options);
+        HashCache cache = loadCache(options);
+        return HashRecordIterator.stream(output -> {
+            try (ChunkSidecar sidecar = openSidecar(options);
+                 TreeWalker treeWalker = TreeWalker.create(options.getTraversalThreads());
+                 HashWriter hashWriter = createHashWriter(output,
+                         decorate(hashCalculator, cache, sidecar, options), options)) {
+                HashVisitor<Path> visitor = new HashVisitor<>(hashWriter);
+                for (String root : rootsCopy) {
+                    walkRoot(hashWriter, root, visitor, treeWalker, options);
+                }
+                hashWriter.flush();
+            }
+            saveCache(cache, options);
+        });
+    }
+
+    private static void walkRoots(BufferedReader reader, HashWriter hashWriter, HashVisitor<Path> visitor,
+                                  TreeWalker treeWalker, WalkOptions options) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            if (visitor instanceof CheckpointingVisitor checkpointing && !checkpointing.nextRoot()) {
+                continue;
+            }
+            walkRoot(hashWriter, line, visitor, treeWalker, options);
         }
     }
 
-    private static HashCalculator createHashCalculator(String mode) throws IllegalInputException {
-        return switch (mode) {
-            case "jenkins" -> new JenkinsHashCalculator();
-            case "sha-1" -> new Sha1HashCalculator();
-            default -> {
-                throw new IllegalInputException("Incorrect mode " + mode);
+    /**
+     * Returns the position to resume from, truncating the output to the checkpointed length,
+     * or {@code null} if checkpoints are disabled.
+     */
+    private static WalkCheckpoint prepareCheckpoint(Path outputFilePath,
+                                                    WalkOptions options) throws WorkFilesException {
+        Path checkpointFile = options.getCheckpointFile();
+        if (checkpointFile == null) {
+            return null;
+        }
+        try {
+            WalkCheckpoint checkpoint = options.isResume()
+                    ? WalkCheckpoint.load(checkpointFile, options.getMode())
+                    : null;
+            if (checkpoint == null || !Files.exists(outputFilePath)
+                    || Files.size(outputFilePath) < checkpoint.outputBytes()) {
+                return WalkCheckpoint.start(options.getMode());
+            }
+            try (FileChannel channel = FileChannel.open(outputFilePath, StandardOpenOption.WRITE)) {
+                channel.truncate(checkpoint.outputBytes());
             }
-        };
+            return checkpoint;
+        } catch (IOException | SecurityException e) {
+            throw new WorkFilesException("Cannot resume from checkpoint", e);
+        }
     }
 
-    private static void makeWalk(HashWriter hashWriter, String fileName,
-                                 HashVisitor<Path> visitor, int depth, boolean log) throws IOException {
+    private static void walkRoot(HashWriter hashWriter, String root, HashVisitor<Path> visitor,
+                                 TreeWalker treeWalker, WalkOptions options) throws WriteException {
+        try {
+            makeWalk(hashWriter, root, visitor, treeWalker, options.getDepth(), options.isLog());
+        } catch (WriteException e) {
+            throw e;
+        } catch (IOException e) {
+            if (options.isLog()) {
+                System.err.println("Error while handling " + root + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static HashCalculator createHashCalculator(WalkOptions options) throws IllegalInputException {
+        HashCalculator hashCalculator = HashAlgorithms.create(options.getMode());
+        if (options.getChunkFile() != null) {
+            if (options.getCheckpointFile() != null) {
+                throw new IllegalInputException("Chunk sidecar cannot be combined with checkpoints");
+            }
+            if (options.getCacheFile() != null) {
+                throw new IllegalInputException("Chunk sidecar cannot be combined with hash cache");
+            }
+            if (!(hashCalculator instanceof AbstractHashCalculator)) {
+                throw new IllegalInputException("Mode " + options.getMode() + " does not support chunking");
+            }
+        }
+        return hashCalculator;
+    }
+
+    private static HashCalculator decorate(HashCalculator hashCalculator, HashCache cache,
+                                           ChunkSidecar sidecar, WalkOptions options) {
+        if (sidecar != null) {
+            hashCalculator = new ChunkingHashCalculator((AbstractHashCalculator) hashCalculator, sidecar);
+        }
+        if (options.getListener() != null && hashCalculator instanceof AbstractHashCalculator abstractCalculator) {
+            abstractCalculator.setListener(options.getListener());
+        }
+        if (cache != null) {
+            hashCalculator = new CachingHashCalculator(hashCalculator, cache);
+        }
+        return hashCalculator;
+    }
+
+    private static HashOutput openOutput(Path outputFilePath, WalkOptions options, boolean append) throws IOException {
+        if (options.isAsyncOutput()) {
+            return new AsyncHashOutput(outputFilePath, append);
+        }
+        if (append) {
+            return new TextHashOutput(Files.newBufferedWriter(outputFilePath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        }
+        return new TextHashOutput(Files.newBufferedWriter(outputFilePath, StandardCharsets.UTF_8));
+    }
+
+    private static ChunkSidecar openSidecar(WalkOptions options) throws IOException {
+        return options.getChunkFile() == null ? null : new ChunkSidecar(options.getChunkFile());
+    }
+
+    private static void saveCache(HashCache cache, WalkOptions options) throws IOException {
+        if (cache != null) {
+            cache.save(options.getCacheFile());
+        }
+    }
+
+    private static HashCache loadCache(WalkOptions options) throws WorkFilesException {
+        Path cacheFile = options.getCacheFile();
+        if (cacheFile == null) {
+            return null;
+        }
+        if (options.isInvalidateCache()) {
+            return new HashCache(options.getMode());
+        }
+        try {
+            return HashCache.load(cacheFile, options.getMode());
+        } catch (IOException | SecurityException e) {
+            throw new WorkFilesException("Cannot load hash cache", e);
+        }
+    }
+
+    private static String optionValue(String[] args, int index) throws IllegalInputException {
+        if (index >= args.length) {
+            throw new IllegalInputException("Expected value after " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int parsePositive(String[] args, int index) throws IllegalInputException {
+        String value = optionValue(args, index);
+        try {
+            int number = Integer.parseInt(value);
+            if (number <= 0) {
+                throw new IllegalInputException("Expected positive value for " + args[index - 1]);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalInputException("Expected number for " + args[index - 1] + ": " + value);
+        }
+    }
+
+    private static Path parsePath(String[] args, int index) throws IllegalInputException {
+        String value = optionValue(args, index);
+        try {
+            return Path.of(value);
+        } catch (InvalidPathException e) {
+            throw new IllegalInputException("Invalid path for " + args[index - 1] + ": " + e.getMessage());
+        }
+    }
+
+    private static HashWriter createHashWriter(HashOutput output, HashCalculator hashCalculator, WalkOptions options) {
+        if (options.getListener() != null) {
+            output = new ListeningHashOutput(output, options.getListener());
+        }
+        if (options.getThreads() > 1) {
+            return new ParallelHashWriter(output, hashCalculator, options.getThreads());
+        }
+        return new HashWriter(output, hashCalculator);
+    }
+
+    private static void makeWalk(HashWriter hashWriter, String fileName, HashVisitor<Path> visitor,
+                                 TreeWalker treeWalker, int depth, boolean log) throws IOException {
         Path path;
         try {
             path = Path.of(fileName);
@@ -94,9 +355,12 @@ public class Walker {
             if (log) {
                 System.err.println("Cannot parse filename " + fileName + ": " + e.getMessage());
             }
-            hashWriter.writeErrorHash(fileName);
+            hashWriter.writeErrorHash(fileName, e);
             return;
         }
-        Files.walkFileTree(path, Collections.emptySet(), depth, visitor);
+        treeWalker.walkFileTree(path, depth, visitor);
+    }
+
+    record Arguments(Path input, Path output, WalkOptions options) {
     }
 }
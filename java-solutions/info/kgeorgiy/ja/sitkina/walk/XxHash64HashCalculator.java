@@ -0,0 +1,129 @@
+package info.kgeorgiy.ja.sitkina.walk;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Streaming xxHash64 with zero seed.
+ */
+public class XxHash64HashCalculator extends AbstractHashCalculator {
+    private static final int DIGITS = Long.BYTES * 2;
+    private static final String ERROR_HASH = "0".repeat(DIGITS);
+
+    public String getErrorHash() {
+        return ERROR_HASH;
+    }
+
+    @Override
+    protected Hasher createHasher() {
+        return new XxHash64Hasher();
+    }
+
+    private static class XxHash64Hasher implements Hasher {
+        private static final long PRIME1 = 0x9E3779B185EBCA87L;
+        private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+        private static final long PRIME3 = 0x165667B19E3779F9L;
+        private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+        private static final long PRIME5 = 0x27D4EB2F165667C5L;
+        private static final int STRIPE = 32;
+
+        private final ByteBuffer memory = ByteBuffer.allocate(STRIPE).order(ByteOrder.LITTLE_ENDIAN);
+        private final char[] chars = new char[DIGITS];
+        private long v1, v2, v3, v4;
+        private long length;
+
+        XxHash64Hasher() {
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            v1 = PRIME1 + PRIME2;
+            v2 = PRIME2;
+            v3 = 0;
+            v4 = -PRIME1;
+            length = 0;
+            memory.clear();
+        }
+
+        @Override
+        public void update(ByteBuffer buffer) {
+            ByteOrder order = buffer.order();
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            length += buffer.remaining();
+            if (memory.position() > 0) {
+                while (memory.hasRemaining() && buffer.hasRemaining()) {
+                    memory.put(buffer.get());
+                }
+                if (memory.hasRemaining()) {
+                    buffer.order(order);
+                    return;
+                }
+                stripe(memory, 0);
+                memory.clear();
+            }
+            int position = buffer.position();
+            int limit = buffer.limit();
+            for (; position + STRIPE <= limit; position += STRIPE) {
+                stripe(buffer, position);
+            }
+            buffer.position(position);
+            memory.put(buffer);
+            buffer.order(order);
+        }
+
+        private void stripe(ByteBuffer buffer, int position) {
+            v1 = round(v1, buffer.getLong(position));
+            v2 = round(v2, buffer.getLong(position + 8));
+            v3 = round(v3, buffer.getLong(position + 16));
+            v4 = round(v4, buffer.getLong(position + 24));
+        }
+
+        @Override
+        public String digest() {
+            long hash;
+            if (length >= STRIPE) {
+                hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+                hash = merge(hash, v1);
+                hash = merge(hash, v2);
+                hash = merge(hash, v3);
+                hash = merge(hash, v4);
+            } else {
+                hash = PRIME5;
+            }
+            hash += length;
+            memory.flip();
+            while (memory.remaining() >= 8) {
+                hash ^= round(0, memory.getLong());
+                hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            }
+            if (memory.remaining() >= 4) {
+                hash ^= Integer.toUnsignedLong(memory.getInt()) * PRIME1;
+                hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            }
+            while (memory.hasRemaining()) {
+                hash ^= Byte.toUnsignedLong(memory.get()) * PRIME5;
+                hash = Long.rotateLeft(hash, 11) * PRIME1;
+            }
+            hash ^= hash >>> 33;
+            hash *= PRIME2;
+            hash ^= hash >>> 29;
+            hash *= PRIME3;
+            hash ^= hash >>> 32;
+            reset();
+            Hex.encode(hash, DIGITS, chars, 0);
+            return new String(chars);
+        }
+
+        private static long round(long accumulator, long input) {
+            accumulator += input * PRIME2;
+            accumulator = Long.rotateLeft(accumulator, 31);
+            return accumulator * PRIME1;
+        }
+
+        private static long merge(long hash, long accumulator) {
+            hash ^= round(0, accumulator);
+            return hash * PRIME1 + PRIME4;
+        }
+    }
+}
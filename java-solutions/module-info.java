@@ -8,6 +8,7 @@ module info.kgeorgiy.ja.sitkina {
     requires info.kgeorgiy.java.advanced.crawler;
     requires info.kgeorgiy.java.advanced.hello;
     requires java.compiler;
+    requires java.management;
     requires java.rmi;
     requires jdk.httpserver;
     requires org.junit.jupiter.api;
@@ -16,5 +17,8 @@ module info.kgeorgiy.ja.sitkina {
     requires org.junit.platform.launcher;
 
     exports info.kgeorgiy.ja.sitkina.bank;
+    exports info.kgeorgiy.ja.sitkina.walk;
     opens info.kgeorgiy.ja.sitkina.bank;
+
+    uses info.kgeorgiy.ja.sitkina.walk.HashAlgorithm;
 }
@@ -0,0 +1,23 @@
+#!/bin/bash
+# usage: benchmark.sh WalkBenchmark|MapperBenchmark|IterativeBenchmark [benchmark args]
+path=$(cd ..; pwd)
+temp_dir="temp"
+kgeorgiy_modules_path="../../java-advanced-2024/modules"
+solutions="$path/java-solutions/info/kgeorgiy/ja/sitkina"
+
+benchmark=$1
+shift
+source=$(ls "$solutions"/*/"$benchmark".java 2>/dev/null)
+if [ -z "$benchmark" ] || [ -z "$source" ]; then
+  echo "Unknown benchmark: $benchmark" >&2
+  exit 1
+fi
+package=$(basename "$(dirname "$source")")
+
+modules="$kgeorgiy_modules_path/info.kgeorgiy.java.advanced.mapper:$kgeorgiy_modules_path/info.kgeorgiy.java.advanced.iterative"
+
+javac -d "$temp_dir" -cp "$modules" "$solutions"/benchmark/*.java "$solutions/$package"/*.java
+java -cp "$temp_dir:$modules" "info.kgeorgiy.ja.sitkina.$package.$benchmark" "$@"
+exitcode=$?
+rm -r "$temp_dir"
+exit $exitcode